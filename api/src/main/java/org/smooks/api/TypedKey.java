@@ -44,6 +44,7 @@ package org.smooks.api;
 
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a type-safe key for mapping to an object.
@@ -56,10 +57,13 @@ public interface TypedKey<T> {
     String getName();
 
     /**
-     * Constructs a <code>TypedKey</code> with a random UUID for its name.
+     * Constructs a <code>TypedKey</code> with a name unique within this process.
+     * <p/>
+     * The name is a random UUID, drawn once per process, followed by a counter. Creating a key is therefore cheap and
+     * does not contend on {@link java.security.SecureRandom}.
      */
     static <T> TypedKey<T> of() {
-        return new DefaultTypedKey<>(UUID.randomUUID().toString());
+        return new DefaultTypedKey<>(DefaultTypedKey.nextAnonymousName());
     }
 
     /**
@@ -73,6 +77,9 @@ public interface TypedKey<T> {
 
     final class DefaultTypedKey<T> implements TypedKey<T> {
 
+        private static final String ANONYMOUS_NAME_PREFIX = UUID.randomUUID() + "-";
+        private static final AtomicLong ANONYMOUS_NAME_SEQUENCE = new AtomicLong();
+
         private final String name;
         private int hash;
 
@@ -90,6 +97,10 @@ public interface TypedKey<T> {
             return name;
         }
 
+        static String nextAnonymousName() {
+            return ANONYMOUS_NAME_PREFIX + Long.toHexString(ANONYMOUS_NAME_SEQUENCE.incrementAndGet());
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
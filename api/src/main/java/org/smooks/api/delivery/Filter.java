@@ -72,6 +72,22 @@ public interface Filter extends Closeable {
 
     String READER_POOL_SIZE = "reader.pool.size";
 
+    /**
+     * When a stream sink is flushed as fragments end: <code>FRAGMENT</code>, <code>DOCUMENT</code>,
+     * <code>THRESHOLD</code> (default) or <code>INTERVAL</code>.
+     */
+    String SINK_FLUSH_POLICY = "sink.flush.policy";
+
+    /**
+     * Number of characters written to a stream sink after which the <code>THRESHOLD</code> flush policy flushes it.
+     */
+    String SINK_FLUSH_THRESHOLD = "sink.flush.threshold";
+
+    /**
+     * Number of milliseconds after which the <code>INTERVAL</code> flush policy flushes a stream sink.
+     */
+    String SINK_FLUSH_INTERVAL = "sink.flush.interval";
+
     /**
      * Filter the content in the supplied {@link org.smooks.api.io.Source} instance, outputting the result
      * to the supplied {@link org.smooks.api.io.Sink} instance.
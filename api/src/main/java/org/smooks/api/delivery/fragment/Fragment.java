@@ -58,6 +58,17 @@ public interface Fragment<T> {
      */
     String getId();
 
+    /**
+     * Numeric form of {@link #getId()}. The default implementation parses {@link #getId()}; implementations with
+     * numeric identifiers should override it to avoid the parsing.
+     *
+     * @return an identifier unique across fragments
+     * @throws NumberFormatException if {@link #getId()} is not a <code>long</code>
+     */
+    default long getLongId() {
+        return Long.parseLong(getId());
+    }
+
     /**
      * @return the wrapped fragment
      */
@@ -0,0 +1,96 @@
+/*-
+ * ========================LICENSE_START=================================
+ * API
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TypedKeyTestCase {
+
+    @Test
+    public void testOfReturnsDistinctKeys() {
+        Set<TypedKey<Object>> typedKeys = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            TypedKey<Object> typedKey = TypedKey.of();
+            assertTrue(typedKeys.add(typedKey));
+            assertTrue(names.add(typedKey.getName()));
+        }
+    }
+
+    @Test
+    public void testNextAnonymousNameSharesPrefix() {
+        String name = TypedKey.DefaultTypedKey.nextAnonymousName();
+        String nextName = TypedKey.DefaultTypedKey.nextAnonymousName();
+        assertNotEquals(name, nextName);
+        assertEquals(name.substring(0, name.lastIndexOf('-')), nextName.substring(0, nextName.lastIndexOf('-')));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        TypedKey<String> typedKey = TypedKey.of("foo");
+        TypedKey<Integer> sameNameTypedKey = TypedKey.of("foo");
+        assertEquals(typedKey, sameNameTypedKey);
+        assertEquals(typedKey.hashCode(), sameNameTypedKey.hashCode());
+        assertEquals(typedKey.hashCode(), typedKey.hashCode());
+        assertNotEquals(typedKey, TypedKey.of("bar"));
+        assertNotEquals(typedKey, "foo");
+
+        TypedKey<String> anonymousTypedKey = TypedKey.of();
+        assertEquals(anonymousTypedKey, TypedKey.of(anonymousTypedKey.getName()));
+        assertNotEquals(anonymousTypedKey, TypedKey.of());
+    }
+
+    @Test
+    public void testOfGivenName() {
+        TypedKey<String> typedKey = TypedKey.of("foo");
+        assertEquals("foo", typedKey.getName());
+        assertEquals("foo", typedKey.toString());
+    }
+}
@@ -0,0 +1,161 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Benchmark
+ * %%
+ * Copyright (C) 2020 - 2021 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.smooks.Smooks;
+import org.smooks.api.ExecutionContext;
+import org.smooks.api.delivery.StreamFilterType;
+import org.smooks.api.resource.visitor.Visitor;
+import org.smooks.engine.DefaultApplicationContextBuilder;
+import org.smooks.engine.DefaultFilterSettings;
+import org.smooks.engine.delivery.dom.DOMFilterType;
+import org.smooks.engine.delivery.sax.ng.SaxNgFilterType;
+import org.smooks.io.NullWriter;
+import org.smooks.io.sink.WriterSink;
+import org.smooks.io.source.ByteSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Smooks#filterSource} over a locally generated document (see {@link XmlDocumentGenerator}).
+ * <p/>
+ * Throughput and the latency distribution ({@link Mode#SampleTime}) are reported out-of-the-box. Run with the
+ * <code>gc</code> profiler (the default in {@link JmhBenchmarkApp}) to report the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    public enum FilterType {
+        SAX_NG(new SaxNgFilterType()),
+        DOM(new DOMFilterType());
+
+        private final StreamFilterType streamFilterType;
+
+        FilterType(StreamFilterType streamFilterType) {
+            this.streamFilterType = streamFilterType;
+        }
+
+        public StreamFilterType getStreamFilterType() {
+            return streamFilterType;
+        }
+    }
+
+    public enum VisitorType {
+        NONE,
+        COUNTER,
+        ELEMENT
+    }
+
+    @Param({"SAX_NG", "DOM"})
+    private FilterType filterType;
+
+    @Param({"NONE", "COUNTER", "ELEMENT"})
+    private VisitorType visitorType;
+
+    @Param({"*"})
+    private String selector;
+
+    @Param({"1000"})
+    private int records;
+
+    @Param({"3"})
+    private int depth;
+
+    @Param({"4"})
+    private int fanOut;
+
+    private Smooks smooks;
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        document = new XmlDocumentGenerator(records, depth, fanOut).generate();
+        smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setFilterType(filterType.getStreamFilterType())).build());
+
+        final Visitor visitor;
+        switch (visitorType) {
+            case COUNTER:
+                visitor = new ElementCounterVisitor();
+                break;
+            case ELEMENT:
+                visitor = new NoOpElementVisitor();
+                break;
+            default:
+                visitor = null;
+        }
+        if (visitor != null) {
+            smooks.addVisitor(visitor, selector);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        smooks.close();
+    }
+
+    @Benchmark
+    public ExecutionContext filterSource() {
+        final ExecutionContext executionContext = smooks.createExecutionContext();
+        smooks.filterSource(executionContext, new ByteSource(document), new WriterSink<>(new NullWriter()));
+
+        return executionContext;
+    }
+}
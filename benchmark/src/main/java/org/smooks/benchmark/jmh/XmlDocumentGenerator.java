@@ -0,0 +1,127 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Benchmark
+ * %%
+ * Copyright (C) 2020 - 2021 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.benchmark.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates synthetic XML documents so that benchmarks are repeatable and do not depend on network resources.
+ * <p/>
+ * A generated document has a <code>document</code> root holding <code>records</code> <code>record</code> elements.
+ * Each <code>record</code> is the root of a tree that is <code>depth</code> levels of <code>node</code> elements deep
+ * with <code>fanOut</code> children per level. The bottom level is made up of <code>leaf</code> elements holding text.
+ * Output is deterministic for a given set of arguments.
+ */
+public class XmlDocumentGenerator {
+
+    private final int records;
+    private final int depth;
+    private final int fanOut;
+
+    public XmlDocumentGenerator(final int records, final int depth, final int fanOut) {
+        if (records < 0 || depth < 0 || fanOut < 1) {
+            throw new IllegalArgumentException("records and depth must not be negative and fanOut must be greater than zero");
+        }
+        this.records = records;
+        this.depth = depth;
+        this.fanOut = fanOut;
+    }
+
+    public byte[] generate() {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(byteArrayOutputStream, StandardCharsets.UTF_8)) {
+            generate(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    public void generate(final Writer writer) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<document>");
+        for (int i = 0; i < records; i++) {
+            writer.write("<record id=\"");
+            writer.write(Integer.toString(i));
+            writer.write("\">");
+            writeChildren(writer, i, 1);
+            writer.write("</record>");
+        }
+        writer.write("</document>");
+    }
+
+    protected void writeChildren(final Writer writer, final int record, final int level) throws IOException {
+        for (int i = 0; i < fanOut; i++) {
+            if (level > depth) {
+                writer.write("<leaf>value-");
+                writer.write(Integer.toString(record));
+                writer.write('-');
+                writer.write(Integer.toString(i));
+                writer.write("</leaf>");
+            } else {
+                writer.write("<node level=\"");
+                writer.write(Integer.toString(level));
+                writer.write("\">");
+                writeChildren(writer, record, level + 1);
+                writer.write("</node>");
+            }
+        }
+    }
+
+    public int getRecords() {
+        return records;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+}
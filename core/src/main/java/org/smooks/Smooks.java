@@ -102,6 +102,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 /**
  * Smooks executor class.
@@ -436,6 +437,38 @@ public class Smooks implements Closeable {
      * @throws UnknownProfileMemberException Unknown target profile.
      */
     public ExecutionContext createExecutionContext(String targetProfile) throws UnknownProfileMemberException {
+        return withApplicationClassLoader(() -> new DefaultExecutionContext(targetProfile, applicationContext, visitorBindings));
+    }
+
+    /**
+     * Eagerly build the {@link ContentDeliveryConfig} for the default profile.
+     * <p/>
+     * The config is otherwise built when the first {@link ExecutionContext} is created. Calling this method at
+     * startup moves that cost out of the first filter request. Like {@link #createExecutionContext()}, it makes this
+     * Smooks instance un-configurable.
+     *
+     * @return The built content delivery config.
+     */
+    public ContentDeliveryConfig buildContentDeliveryConfig() {
+        return buildContentDeliveryConfig(Profile.DEFAULT_PROFILE);
+    }
+
+    /**
+     * Eagerly build the {@link ContentDeliveryConfig} for a target profile.
+     *
+     * @param targetProfile The target profile ({@link ProfileSet base profile}) whose config is to be built.
+     * @return The built content delivery config.
+     * @throws UnknownProfileMemberException Unknown target profile.
+     * @see #buildContentDeliveryConfig()
+     */
+    public ContentDeliveryConfig buildContentDeliveryConfig(String targetProfile) throws UnknownProfileMemberException {
+        return withApplicationClassLoader(() -> {
+            final ProfileSet targetProfileSet = applicationContext.getProfileStore().getProfileSet(targetProfile);
+            return applicationContext.getContentDeliveryRuntimeFactory().create(targetProfileSet, visitorBindings).getContentDeliveryConfig();
+        });
+    }
+
+    private <T> T withApplicationClassLoader(final Supplier<T> supplier) {
         if (applicationContext.getClassLoader() != null) {
             ClassLoader originalTCCL = Thread.currentThread().getContextClassLoader();
             CascadingClassLoaderSet newTCCL = new CascadingClassLoaderSet();
@@ -448,7 +481,7 @@ public class Smooks implements Closeable {
                 if (isConfigurable) {
                     setNotConfigurable();
                 }
-                return new DefaultExecutionContext(targetProfile, applicationContext, visitorBindings);
+                return supplier.get();
             } finally {
                 Thread.currentThread().setContextClassLoader(originalTCCL);
             }
@@ -456,7 +489,7 @@ public class Smooks implements Closeable {
             if (isConfigurable) {
                 setNotConfigurable();
             }
-            return new DefaultExecutionContext(targetProfile, applicationContext, visitorBindings);
+            return supplier.get();
         }
     }
 
@@ -185,6 +185,7 @@ public class DefaultApplicationContextBuilder implements ApplicationContextBuild
         setParameter(Filter.ENTITIES_REWRITE, Boolean.toString(filterSettings.isRewriteEntities()), registry);
         setParameter(Filter.DEFAULT_SERIALIZATION_ON, Boolean.toString(filterSettings.isDefaultSerializationOn()), registry);
         setParameter(Filter.TERMINATE_ON_VISITOR_EXCEPTION, Boolean.toString(filterSettings.isTerminateOnException()), registry);
+        setParameter(Filter.MAINTAIN_ELEMENT_STACK, Boolean.toString(filterSettings.isMaintainElementStack()), registry);
         setParameter(Filter.CLOSE_SOURCE, Boolean.toString(filterSettings.isCloseSource()), registry);
         setParameter(Filter.CLOSE_SINK, Boolean.toString(filterSettings.isCloseSink()), registry);
         setParameter(Filter.READER_POOL_SIZE, Integer.toString(filterSettings.getReaderPoolSize()), registry);
@@ -251,4 +251,22 @@ public class DefaultExecutionContext implements ExecutionContext {
     public MementoCaretaker getMementoCaretaker() {
         return mementoCaretaker;
     }
+
+    /**
+     * Resets this execution context so that it can be reused for another filter run under the same target profile and
+     * application context.
+     * <p/>
+     * Attributes, mementos, the bean context, the document source, the content encoding and the termination error are
+     * discarded. The {@link ContentDeliveryRuntime} is retained.
+     */
+    public void reset() {
+        if (mementoCaretaker instanceof DefaultMementoCaretaker) {
+            ((DefaultMementoCaretaker) mementoCaretaker).clear();
+        }
+        attributes.clear();
+        docSource = null;
+        contentEncoding = null;
+        terminationError = null;
+        beanContext = null;
+    }
 }
@@ -50,7 +50,6 @@ import org.smooks.api.NotAppContextScoped;
 import org.smooks.api.Registry;
 import org.smooks.api.SmooksException;
 import org.smooks.api.TypedKey;
-import org.smooks.api.converter.TypeConverterFactory;
 import org.smooks.api.lifecycle.LifecycleManager;
 import org.smooks.api.profile.ProfileSet;
 import org.smooks.api.profile.ProfileStore;
@@ -59,13 +58,17 @@ import org.smooks.api.resource.config.ResourceConfigSeq;
 import org.smooks.api.resource.config.loader.ResourceConfigLoader;
 import org.smooks.assertion.AssertArgument;
 import org.smooks.engine.converter.TypeConverterFactoryLoader;
+import org.smooks.engine.delivery.XMLReaderRecipe;
 import org.smooks.engine.injector.Scope;
 import org.smooks.engine.lifecycle.DefaultLifecycleManager;
 import org.smooks.engine.lifecycle.PostConstructLifecyclePhase;
 import org.smooks.engine.lifecycle.PreDestroyLifecyclePhase;
+import org.smooks.engine.lookup.GlobalParamsLookup;
+import org.smooks.engine.lookup.InstanceLookup;
 import org.smooks.engine.lookup.LifecycleManagerLookup;
 import org.smooks.engine.lookup.GlobalResourceConfigSeqLookup;
 import org.smooks.engine.lookup.ResourceConfigSeqsLookup;
+import org.smooks.engine.lookup.converter.SourceTargetTypeConverterFactoryLookup;
 import org.smooks.engine.lookup.converter.TypeConverterFactoryLookup;
 import org.smooks.engine.resource.config.DefaultResourceConfigSeq;
 
@@ -74,7 +77,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
@@ -83,6 +85,7 @@ public class DefaultRegistry implements Registry {
     private static final Logger LOGGER = LoggerFactory.getLogger(Registry.class);
 
     private final Map<Object, Object> registry = new ConcurrentHashMap<>();
+    private final InstanceLookup.TypeIndex typeIndex = new InstanceLookup.TypeIndex();
     private final ClassLoader classLoader;
     private final ResourceConfigLoader resourceConfigLoader;
 
@@ -92,10 +95,12 @@ public class DefaultRegistry implements Registry {
         AssertArgument.isNotNull(profileStore, "profileStore");
 
         this.classLoader = classLoader;
+        registerObject(InstanceLookup.TypeIndex.class, typeIndex);
         registerObject(ProfileStore.class, profileStore);
 
-        Set<TypeConverterFactory<?, ?>> typeConverterFactories = new TypeConverterFactoryLoader().load(classLoader);
-        registerObject(TypeConverterFactoryLookup.TYPE_CONVERTER_FACTORY_REGISTRY_KEY, typeConverterFactories);
+        SourceTargetTypeConverterFactoryLookup.Index typeConverterFactoryIndex = new SourceTargetTypeConverterFactoryLookup.Index(new TypeConverterFactoryLoader().load(classLoader));
+        registerObject(TypeConverterFactoryLookup.TYPE_CONVERTER_FACTORY_REGISTRY_KEY, typeConverterFactoryIndex.getTypeConverterFactories());
+        registerObject(SourceTargetTypeConverterFactoryLookup.Index.class, typeConverterFactoryIndex);
         registerObject(LifecycleManager.class, new DefaultLifecycleManager());
 
         // add the default list to the list.
@@ -107,6 +112,8 @@ public class DefaultRegistry implements Registry {
         List<ResourceConfigSeq> resourceConfigSeqs = new ArrayList<>();
         resourceConfigSeqs.add(globalResourceConfigSeq);
         registerObject(new TypeResolver().resolve(List.class, ResourceConfigSeq.class), resourceConfigSeqs);
+        registerObject(GlobalParamsLookup.Cache.class, new GlobalParamsLookup.Cache());
+        registerObject(XMLReaderRecipe.Cache.class, new XMLReaderRecipe.Cache());
 
         this.resourceConfigLoader = resourceConfigLoader;
     }
@@ -137,11 +144,13 @@ public class DefaultRegistry implements Registry {
         if (registry.putIfAbsent(key, value) != null) {
             throw new SmooksException(String.format("Duplicate registered object for object with key [%s]", key));
         }
+        typeIndex.onRegister(key, value);
     }
 
     @Override
     public void deRegisterObject(final Object key) {
         registry.remove(key);
+        typeIndex.onDeRegister(key);
     }
 
     @Override
@@ -209,6 +218,7 @@ public class DefaultRegistry implements Registry {
 
         lookup(new LifecycleManagerLookup()).applyPhase(resourceConfig, new PostConstructLifecyclePhase(new Scope(this)));
         lookup(new GlobalResourceConfigSeqLookup()).add(resourceConfig);
+        invalidateGlobalParams();
     }
 
     /**
@@ -224,6 +234,14 @@ public class DefaultRegistry implements Registry {
         // XSD v1.0 added profiles to the resource config.  If there were any, add them to the
         // profile store.
         addProfileSets(resourceConfigSeq.getProfiles());
+        invalidateGlobalParams();
+    }
+
+    private void invalidateGlobalParams() {
+        final GlobalParamsLookup.Cache globalParamsCache = lookup(GlobalParamsLookup.Cache.class);
+        if (globalParamsCache != null) {
+            globalParamsCache.invalidate();
+        }
     }
 
     @Override
@@ -49,8 +49,12 @@ import org.smooks.api.SmooksException;
 import org.smooks.api.delivery.Filter;
 import org.smooks.api.io.Sink;
 import org.smooks.api.io.Source;
+import org.smooks.engine.lookup.GlobalParamsLookup;
 import org.smooks.engine.resource.reader.NullReader;
+import org.smooks.io.BufferedSinkWriter;
+import org.smooks.io.DOMBuilder;
 import org.smooks.io.NullWriter;
+import org.smooks.io.SAXWriter;
 import org.smooks.io.Stream;
 import org.smooks.io.sink.DOMSink;
 import org.smooks.io.sink.StreamSink;
@@ -63,10 +67,10 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -121,9 +125,9 @@ public abstract class AbstractFilter implements Filter {
             if (outputStream != null) {
                 try {
                     if (executionContext != null) {
-                        return new OutputStreamWriter(streamSink.getOutputStream(), executionContext.getContentEncoding());
+                        return newBufferedSinkWriter(new OutputStreamWriter(streamSink.getOutputStream(), executionContext.getContentEncoding()), executionContext);
                     } else {
-                        return new OutputStreamWriter(streamSink.getOutputStream(), StandardCharsets.UTF_8);
+                        return new BufferedSinkWriter(new OutputStreamWriter(streamSink.getOutputStream(), StandardCharsets.UTF_8));
                     }
                 } catch (UnsupportedEncodingException e) {
                     throw new SmooksException("Unable to encode output stream.", e);
@@ -132,7 +136,7 @@ public abstract class AbstractFilter implements Filter {
                 throw new SmooksException(String.format("Invalid [%s]. No OutputStream instance.", sink.getClass().getName()));
             }
         } else if (sink instanceof DOMSink) {
-            return new StringWriter();
+            return new SAXWriter(new DOMBuilder(), StandardCharsets.UTF_8);
         } else {
             final Writer writer = Stream.out(executionContext);
             if (writer != null) {
@@ -143,6 +147,20 @@ public abstract class AbstractFilter implements Filter {
         }
     }
 
+    protected BufferedSinkWriter newBufferedSinkWriter(final Writer writer, final ExecutionContext executionContext) {
+        final GlobalParamsLookup.ParameterAccessor globalParams = executionContext.getApplicationContext().getRegistry().lookup(new GlobalParamsLookup());
+        final BufferedSinkWriter.FlushPolicy flushPolicy;
+        try {
+            flushPolicy = BufferedSinkWriter.FlushPolicy.valueOf(globalParams.getParameterValue(Filter.SINK_FLUSH_POLICY, BufferedSinkWriter.FlushPolicy.THRESHOLD.name()).toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new SmooksException(String.format("Invalid '%s' global parameter value. Expected one of %s", Filter.SINK_FLUSH_POLICY, Arrays.toString(BufferedSinkWriter.FlushPolicy.values())), e);
+        }
+        final long flushThreshold = Long.parseLong(globalParams.getParameterValue(Filter.SINK_FLUSH_THRESHOLD, BufferedSinkWriter.DEFAULT_BUFFER_SIZE).toString().trim());
+        final long flushInterval = Long.parseLong(globalParams.getParameterValue(Filter.SINK_FLUSH_INTERVAL, 1000).toString().trim());
+
+        return new BufferedSinkWriter(writer, flushPolicy, flushThreshold, flushInterval);
+    }
+
     protected void close(Source source) {
         try {
             if (source instanceof StreamSource) {
@@ -168,6 +186,14 @@ public abstract class AbstractFilter implements Filter {
         }
     }
 
+    protected void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (Throwable throwable) {
+            LOGGER.debug("Failed to flush output writer.", throwable);
+        }
+    }
+
     protected void close(Sink sink) {
         try {
             if (sink instanceof StreamSink) {
@@ -66,23 +66,18 @@ import org.smooks.engine.xml.NamespaceManager;
 import org.smooks.io.DocumentInputSource;
 import org.smooks.io.source.DOMSource;
 import org.smooks.io.source.JavaSource;
+import org.smooks.io.source.PathSource;
 import org.smooks.io.source.ReaderSource;
 import org.smooks.io.source.StreamSource;
 import org.smooks.io.source.URLSource;
 import org.smooks.namespace.NamespaceDeclarationStack;
 import org.smooks.namespace.NamespaceDeclarationStackAware;
-import org.smooks.support.classpath.ClassUtils;
 import org.w3c.dom.Document;
-import org.xml.sax.DTDHandler;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
-import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.ext.DefaultHandler2;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -226,6 +221,15 @@ public class AbstractParser {
         }
     }
 
+    protected InputSource createInputSource(Source source, String contentEncoding, XMLReader xmlReader) {
+        if (source instanceof PathSource && !(xmlReader instanceof SmooksXMLReader)) {
+            // Hand the bytes straight to the parser and leave encoding detection to it...
+            return new InputSource(((PathSource) source).getInputStream());
+        } else {
+            return createInputSource(source, contentEncoding);
+        }
+    }
+
     protected InputSource createInputSource(Source source, String contentEncoding) {
         // Also attach the underlying stream to the InputSource...
         if (source instanceof StreamSource) {
@@ -262,8 +266,10 @@ public class AbstractParser {
         XMLReader xmlReader;
         Source source = executionContext.get(Source.SOURCE_TYPED_KEY);
 
+        XMLReaderRecipe xmlReaderRecipe = getXMLReaderRecipe();
+
         if (saxDriverConfig != null && saxDriverConfig.getResource() != null) {
-            xmlReader = XMLReaderFactory.createXMLReader(saxDriverConfig.getResource());
+            xmlReader = xmlReaderRecipe.newXMLReader();
         } else if (source instanceof JavaSource) {
             JavaSource javaSource = (JavaSource) source;
 
@@ -282,7 +288,7 @@ public class AbstractParser {
         } else if (source instanceof DOMSource) {
             xmlReader = new DOMReader();
         } else {
-            xmlReader = XMLReaderFactory.createXMLReader();
+            xmlReader = xmlReaderRecipe.newXMLReader();
         }
 
         if (xmlReader instanceof SmooksXMLReader) {
@@ -294,15 +300,20 @@ public class AbstractParser {
             }
         }
 
-        xmlReader.setFeature("http://xml.org/sax/features/namespaces", true);
-        xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
-
-        setHandlers(xmlReader);
-        setFeatures(xmlReader);
+        xmlReaderRecipe.configure(xmlReader);
 
         return xmlReader;
     }
 
+    protected XMLReaderRecipe getXMLReaderRecipe() {
+        final XMLReaderRecipe.Cache xmlReaderRecipeCache = executionContext.getApplicationContext().getRegistry().lookup(XMLReaderRecipe.Cache.class);
+        if (xmlReaderRecipeCache == null) {
+            return new XMLReaderRecipe(saxDriverConfig);
+        } else {
+            return xmlReaderRecipeCache.get(saxDriverConfig);
+        }
+    }
+
     protected void attachNamespaceDeclarationStack(XMLReader reader, ExecutionContext execContext) {
         if (reader instanceof NamespaceDeclarationStackAware) {
             NamespaceDeclarationStack nsDeclarationStack = execContext.get(NamespaceManager.NAMESPACE_DECLARATION_STACK_TYPED_KEY);
@@ -336,71 +347,6 @@ public class AbstractParser {
         }
     }
 
-    private void setHandlers(XMLReader reader) {
-        if (saxDriverConfig != null) {
-            List<Parameter<?>> handlers;
-
-            handlers = saxDriverConfig.getParameters("sax-handler");
-            if (handlers != null) {
-                for (Parameter<?> handler : handlers) {
-                    Object handlerObj = createHandler((String) handler.getValue());
-
-                    if (handlerObj instanceof EntityResolver) {
-                        reader.setEntityResolver((EntityResolver) handlerObj);
-                    }
-                    if (handlerObj instanceof DTDHandler) {
-                        reader.setDTDHandler((DTDHandler) handlerObj);
-                    }
-                    if (handlerObj instanceof ErrorHandler) {
-                        reader.setErrorHandler((ErrorHandler) handlerObj);
-                    }
-                }
-            }
-        }
-    }
-
-    private Object createHandler(String handlerName) {
-        try {
-            return ClassUtils.forName(handlerName, getClass()).newInstance();
-        } catch (ClassNotFoundException | IllegalAccessException | InstantiationException e) {
-            throw new SmooksException("Failed to create SAX Handler '" + handlerName + "'", e);
-        }
-    }
-
-    private void setFeatures(XMLReader reader) throws SAXNotSupportedException, SAXNotRecognizedException {
-        // Try setting the xerces "notify-char-refs" feature, may fail if it's not Xerces but that's OK...
-        try {
-            reader.setFeature("http://apache.org/xml/features/scanner/notify-char-refs", true);
-        } catch (Throwable t) {
-            // Ignore
-        }
-        // Report namespace decls as per SAX 2.0.2 spec...
-        try {
-            // http://www.saxproject.org/apidoc/org/xml/sax/package-summary.html#package_description
-            reader.setFeature("http://xml.org/sax/features/xmlns-uris", true);
-        } catch (Throwable t) {
-            // Not a SAX 2.0.2 compliant parser... Ignore
-        }
-
-        if (saxDriverConfig != null) {
-            List<Parameter<?>> features;
-
-            features = saxDriverConfig.getParameters(FEATURE_ON);
-            if (features != null) {
-                for (Parameter<?> feature : features) {
-                    reader.setFeature((String) feature.getValue(), true);
-                }
-            }
-
-            features = saxDriverConfig.getParameters(FEATURE_OFF);
-            if (features != null) {
-                for (Parameter<?> feature : features) {
-                    reader.setFeature((String) feature.getValue(), false);
-                }
-            }
-        }
-    }
-
     public static boolean isFeatureOn(String name, ResourceConfig saxDriverConfig) {
         boolean featureOn = isFeature(name, FeatureValue.ON, saxDriverConfig);
 
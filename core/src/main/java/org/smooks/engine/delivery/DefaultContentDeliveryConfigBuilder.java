@@ -156,6 +156,9 @@ public class DefaultContentDeliveryConfigBuilder implements ContentDeliveryConfi
 
     /**
      * Get the ContentDeliveryConfig instance for the specified profile set.
+     * <p/>
+     * The config is built once, on the first call. Concurrent callers wait on this builder only, so builders belonging
+     * to other profiles or other Smooks instances are not held up.
      *
      * @param extendedContentHandlerBindings Preconfigured/extended Visitor Configuration Map.
      * @return The ContentDeliveryConfig instance for the named table.
@@ -163,7 +166,7 @@ public class DefaultContentDeliveryConfigBuilder implements ContentDeliveryConfi
     @Override
     public ContentDeliveryConfig build(List<ContentHandlerBinding<Visitor>> extendedContentHandlerBindings) {
         if (contentDeliveryConfig == null) {
-            synchronized (DefaultContentDeliveryConfigBuilder.class) {
+            synchronized (this) {
                 if (contentDeliveryConfig == null) {
                     load(profileSet);
                     fireEvent(Event.CONTENT_DELIVERY_BUILDER_CREATED);
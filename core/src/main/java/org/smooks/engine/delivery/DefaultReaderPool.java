@@ -49,13 +49,27 @@ import org.xml.sax.XMLReader;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * A bounded pool of readers. Slots are striped by thread: each thread starts probing from its own slot and only wraps
+ * around the rest of the pool when that slot is taken, so that threads running in parallel seldom contend on the same
+ * slot and a thread usually gets back the reader it returned last.
+ * <p>
+ * {@link #getProperties()} reports counters alongside the slot occupancy: <code>hits</code> and <code>misses</code>
+ * count borrows that found and did not find a pooled reader, <code>allocations</code> counts returned readers that took
+ * up a slot for the first time, and <code>discards</code> counts returned readers left to the GC because the pool was
+ * full.
+ */
 @Resource(name = "DefaultReaderPool")
 public class DefaultReaderPool implements ReaderPool {
     private final AtomicReferenceArray<Optional<XMLReader>> xmlReaderPool;
     private final int maxReaderPoolSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder discards = new LongAdder();
 
     public DefaultReaderPool(final int maxReaderPoolSize) {
         this.maxReaderPoolSize = maxReaderPoolSize;
@@ -64,16 +78,21 @@ public class DefaultReaderPool implements ReaderPool {
 
     @Override
     public XMLReader borrowXMLReader() {
-        for (int i = 0; i < xmlReaderPool.length(); i++) {
+        final int length = xmlReaderPool.length();
+        final int homeSlot = getHomeSlot(length);
+        for (int j = 0; j < length; j++) {
+            final int i = (homeSlot + j) % length;
             Optional<XMLReader> xmlReader = xmlReaderPool.get(i);
-            if (xmlReader != null) {
+            if (xmlReader != null && xmlReader.isPresent()) {
                 xmlReader = xmlReaderPool.getAndSet(i, Optional.empty());
                 if (xmlReader.isPresent()) {
+                    hits.increment();
                     return xmlReader.get();
                 }
             }
         }
 
+        misses.increment();
         return null;
     }
 
@@ -84,18 +103,26 @@ public class DefaultReaderPool implements ReaderPool {
      */
     @Override
     public void returnXMLReader(XMLReader xmlReader) {
-        for (int i = 0; i < xmlReaderPool.length(); i++) {
-            Optional<XMLReader> optionalXMLReader = Optional.of(xmlReader);
-            if (xmlReaderPool.compareAndSet(i, Optional.empty(), optionalXMLReader) ||
-                    xmlReaderPool.compareAndSet(i, null, optionalXMLReader)) {
+        final Optional<XMLReader> optionalXMLReader = Optional.of(xmlReader);
+        final int length = xmlReaderPool.length();
+        final int homeSlot = getHomeSlot(length);
+        for (int j = 0; j < length; j++) {
+            final int i = (homeSlot + j) % length;
+            if (xmlReaderPool.compareAndSet(i, Optional.empty(), optionalXMLReader)) {
+                return;
+            }
+            if (xmlReaderPool.compareAndSet(i, null, optionalXMLReader)) {
+                allocations.increment();
                 return;
             }
         }
+
+        discards.increment();
     }
 
     @Override
     public Map<String, String> getProperties() {
-        Map<String, String> properties = new HashMap<>(3);
+        Map<String, String> properties = new HashMap<>(7);
         properties.put("maxReadersSize", String.valueOf(maxReaderPoolSize));
         int unallocatedReaders = 0;
         int activeReaders = 0;
@@ -109,6 +136,10 @@ public class DefaultReaderPool implements ReaderPool {
         }
         properties.put("unallocatedReaders", String.valueOf(unallocatedReaders));
         properties.put("activeReaders", String.valueOf(activeReaders));
+        properties.put("hits", String.valueOf(hits.sum()));
+        properties.put("misses", String.valueOf(misses.sum()));
+        properties.put("allocations", String.valueOf(allocations.sum()));
+        properties.put("discards", String.valueOf(discards.sum()));
 
         return properties;
     }
@@ -116,4 +147,19 @@ public class DefaultReaderPool implements ReaderPool {
     public int getMaxReaderPoolSize() {
         return maxReaderPoolSize;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the slot the current thread starts probing from.
+     *
+     * @param length the number of slots in the pool
+     * @return the index of the current thread's home slot, or 0 when the pool has no slots
+     */
+    protected int getHomeSlot(final int length) {
+        if (length == 0) {
+            return 0;
+        }
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return (hash >>> 1) % length;
+    }
+}
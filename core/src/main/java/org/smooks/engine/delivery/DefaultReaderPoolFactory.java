@@ -46,10 +46,27 @@ import org.smooks.api.delivery.ReaderPool;
 import org.smooks.api.delivery.ReaderPoolFactory;
 
 public class DefaultReaderPoolFactory implements ReaderPoolFactory {
+    private final int maxDynamicReaderPoolSize;
+    private final long maxIdleMillis;
+
+    public DefaultReaderPoolFactory() {
+        this(DynamicReaderPool.DEFAULT_MAX_READER_POOL_SIZE, DynamicReaderPool.DEFAULT_MAX_IDLE_MILLIS);
+    }
+
+    /**
+     * @param maxDynamicReaderPoolSize ceiling of the {@link DynamicReaderPool} created for a reader pool size of -1
+     * @param maxIdleMillis            number of milliseconds a reader may sit idle in a {@link DynamicReaderPool} before
+     *                                 it is evicted, or -1 to never evict readers
+     */
+    public DefaultReaderPoolFactory(int maxDynamicReaderPoolSize, long maxIdleMillis) {
+        this.maxDynamicReaderPoolSize = maxDynamicReaderPoolSize;
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
     @Override
     public ReaderPool create(int readerPoolSize) {
         if (readerPoolSize == -1) {
-            return new DynamicReaderPool();
+            return new DynamicReaderPool(Math.min(DynamicReaderPool.DEFAULT_INITIAL_READER_POOL_SIZE, maxDynamicReaderPoolSize), maxDynamicReaderPoolSize, maxIdleMillis);
         } else {
             return new DefaultReaderPool(readerPoolSize);
         }
@@ -47,76 +47,190 @@ import org.xml.sax.XMLReader;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Properties;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * A pool of readers without an upper bound which means that it grows on-demand.
+ * A pool of readers that grows on-demand up to a ceiling.
+ * <p>
+ * Borrowing and returning readers are lock-free. Growing the pool is serialised by a lock: the grower moves each slot
+ * into a larger pool by swapping it for a marker, so a borrow or return racing with the resize fails its compare-and-set
+ * on the old pool and retries on the new one rather than losing or duplicating a reader. A pooled reader shares its slot
+ * with the time it was returned, so the two are always published together. Readers left idle for longer than the max
+ * idle time are evicted from the pool to keep memory bounded after a burst.
  */
 public class DynamicReaderPool implements ReaderPool {
-    private final AtomicReference<AtomicReferenceArray<Optional<XMLReader>>> xmlReaderPoolReference = new AtomicReference<>();
+    public static final int DEFAULT_INITIAL_READER_POOL_SIZE = 16;
+    public static final int DEFAULT_MAX_READER_POOL_SIZE = 1024;
+    public static final long DEFAULT_MAX_IDLE_MILLIS = 300000;
+
+    /**
+     * Slot holding no reader because its reader is borrowed.
+     */
+    private static final Object BORROWED = new Object();
+
+    /**
+     * Slot whose content has been moved into a larger pool.
+     */
+    private static final Object MOVED = new Object();
+
+    private final Object growLock = new Object();
+    private final AtomicLong lastEvictionMillis = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong evictedReaders = new AtomicLong();
+    private final int maxReaderPoolSize;
+    private final long maxIdleMillis;
+    private volatile AtomicReferenceArray<Object> pool;
 
     public DynamicReaderPool() {
-        xmlReaderPoolReference.set(new AtomicReferenceArray<>(16));
+        this(DEFAULT_INITIAL_READER_POOL_SIZE, DEFAULT_MAX_READER_POOL_SIZE, DEFAULT_MAX_IDLE_MILLIS);
+    }
+
+    /**
+     * @param initialReaderPoolSize number of slots the pool starts with
+     * @param maxReaderPoolSize     number of slots beyond which the pool does not grow. Readers returned to a full pool at
+     *                              its ceiling are left to the GC
+     * @param maxIdleMillis         number of milliseconds a reader may sit in the pool before it is evicted, or -1 to never
+     *                              evict readers
+     */
+    public DynamicReaderPool(final int initialReaderPoolSize, final int maxReaderPoolSize, final long maxIdleMillis) {
+        if (initialReaderPoolSize < 1 || maxReaderPoolSize < initialReaderPoolSize) {
+            throw new IllegalArgumentException("Invalid reader pool sizes: initial [" + initialReaderPoolSize + "], max [" + maxReaderPoolSize + "]");
+        }
+        this.maxReaderPoolSize = maxReaderPoolSize;
+        this.maxIdleMillis = maxIdleMillis;
+        pool = new AtomicReferenceArray<>(initialReaderPoolSize);
     }
 
     @Override
     public XMLReader borrowXMLReader() {
-        final AtomicReferenceArray<Optional<XMLReader>> xmlReaderPool = xmlReaderPoolReference.get();
-        for (int i = 0; i < xmlReaderPool.length(); i++) {
-            Optional<XMLReader> xmlReader = xmlReaderPool.get(i);
-            if (xmlReader != null) {
-                xmlReader = xmlReaderPool.getAndSet(i, Optional.empty());
-                if (xmlReader.isPresent()) {
-                    return xmlReader.get();
+        AtomicReferenceArray<Object> pool = this.pool;
+        while (true) {
+            boolean isMoved = false;
+            for (int i = 0; i < pool.length(); i++) {
+                final Object slot = pool.get(i);
+                if (slot instanceof PooledReader && pool.compareAndSet(i, slot, BORROWED)) {
+                    return ((PooledReader) slot).xmlReader;
+                } else if (slot == MOVED) {
+                    isMoved = true;
                 }
             }
-        }
 
-        return null;
+            final AtomicReferenceArray<Object> currentPool = this.pool;
+            if (isMoved && currentPool != pool) {
+                pool = currentPool;
+            } else {
+                return null;
+            }
+        }
     }
 
     /**
      * Return an {@link XMLReader} instance to the reader pool associated with this ContentDelivery config instance.
      *
      * @param xmlReader The XMLReader instance to be returned. If the pool is full, the pool is re-sized to accommodate
-     *                  the new reader.
+     *                  the new reader unless the pool has reached its max size, in which case the instance is left to
+     *                  the GC.
      */
     @Override
     public void returnXMLReader(final XMLReader xmlReader) {
-        final AtomicReferenceArray<Optional<XMLReader>> xmlReaderPool = xmlReaderPoolReference.get();
-        for (int i = 0; i < xmlReaderPool.length(); i++) {
-            Optional<XMLReader> optionalXMLReader = Optional.of(xmlReader);
-            if (xmlReaderPool.compareAndSet(i, Optional.empty(), optionalXMLReader) ||
-                    xmlReaderPool.compareAndSet(i, null, optionalXMLReader)) {
-                return;
+        final long nowMillis = System.currentTimeMillis();
+        final PooledReader pooledReader = new PooledReader(xmlReader, nowMillis);
+        boolean pooled = false;
+        while (!pooled) {
+            final AtomicReferenceArray<Object> pool = this.pool;
+            boolean isMoved = false;
+            for (int i = 0; i < pool.length() && !pooled; i++) {
+                final Object slot = pool.get(i);
+                if (slot == MOVED) {
+                    isMoved = true;
+                } else if ((slot == null || slot == BORROWED) && pool.compareAndSet(i, slot, pooledReader)) {
+                    pooled = true;
+                }
+            }
+
+            if (!pooled) {
+                if (!isMoved && pool.length() >= maxReaderPoolSize) {
+                    return;
+                }
+                // when a resize is moving this pool, this waits for the new pool to be published
+                grow(pool);
             }
         }
 
-        xmlReaderPoolReference.compareAndSet(xmlReaderPool, new AtomicReferenceArray<>(xmlReaderPool.length() * 2));
-        returnXMLReader(xmlReader);
+        if (maxIdleMillis >= 0) {
+            final long lastEvictionMillis = this.lastEvictionMillis.get();
+            if (nowMillis - lastEvictionMillis >= maxIdleMillis && this.lastEvictionMillis.compareAndSet(lastEvictionMillis, nowMillis)) {
+                evictIdleReaders(nowMillis);
+            }
+        }
+    }
+
+    /**
+     * Evicts the pooled readers that have been idle for longer than the max idle time.
+     *
+     * @param nowMillis the current time in milliseconds
+     */
+    protected void evictIdleReaders(final long nowMillis) {
+        final AtomicReferenceArray<Object> pool = this.pool;
+        for (int i = 0; i < pool.length(); i++) {
+            final Object slot = pool.get(i);
+            if (slot instanceof PooledReader && nowMillis - ((PooledReader) slot).returnedMillis > maxIdleMillis &&
+                    pool.compareAndSet(i, slot, null)) {
+                evictedReaders.incrementAndGet();
+            }
+        }
     }
 
     @Override
     public Map<String, String> getProperties() {
-        final AtomicReferenceArray<Optional<XMLReader>> xmlReaderPool = xmlReaderPoolReference.get();
-        Map<String, String> properties = new HashMap<>(3);
-        properties.put("readerPoolSize", String.valueOf(xmlReaderPool.length()));
+        final AtomicReferenceArray<Object> pool = this.pool;
+        Map<String, String> properties = new HashMap<>(5);
+        properties.put("readerPoolSize", String.valueOf(pool.length()));
+        properties.put("maxReadersSize", String.valueOf(maxReaderPoolSize));
         int unallocatedReaders = 0;
         int activeReaders = 0;
-        for (int i = 0; i < xmlReaderPool.length(); i++) {
-            Optional<XMLReader> xmlReader = xmlReaderPool.get(i);
-            if (xmlReader == null || xmlReader.isPresent()) {
-                unallocatedReaders++;
-            } else {
+        for (int i = 0; i < pool.length(); i++) {
+            Object slot = pool.get(i);
+            if (slot == BORROWED) {
                 activeReaders++;
+            } else if (slot != MOVED) {
+                unallocatedReaders++;
             }
         }
         properties.put("unallocatedReaders", String.valueOf(unallocatedReaders));
         properties.put("activeReaders", String.valueOf(activeReaders));
+        properties.put("evictedReaders", String.valueOf(evictedReaders.get()));
 
         return properties;
     }
+
+    private void grow(final AtomicReferenceArray<Object> pool) {
+        synchronized (growLock) {
+            if (this.pool == pool) {
+                final int readerPoolSize = pool.length();
+                final AtomicReferenceArray<Object> newPool = new AtomicReferenceArray<>((int) Math.min((long) readerPoolSize * 2, maxReaderPoolSize));
+                for (int i = 0; i < readerPoolSize; i++) {
+                    Object slot;
+                    do {
+                        slot = pool.get(i);
+                    } while (!pool.compareAndSet(i, slot, MOVED));
+                    newPool.set(i, slot);
+                }
+                this.pool = newPool;
+            }
+        }
+    }
+
+    /**
+     * Slot content of a pooled reader.
+     */
+    private static final class PooledReader {
+        private final XMLReader xmlReader;
+        private final long returnedMillis;
+
+        private PooledReader(final XMLReader xmlReader, final long returnedMillis) {
+            this.xmlReader = xmlReader;
+            this.returnedMillis = returnedMillis;
+        }
+    }
 }
@@ -0,0 +1,257 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery;
+
+import org.smooks.api.SmooksException;
+import org.smooks.api.resource.config.Parameter;
+import org.smooks.api.resource.config.ResourceConfig;
+import org.smooks.api.resource.config.ResourceConfigChangeListener;
+import org.smooks.support.classpath.ClassUtils;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed recipe for creating and configuring the {@link XMLReader}s of a SAX driver configuration.
+ * <p/>
+ * The driver class, its no-arg constructor, the SAX handler classes, and the features to switch on and off are resolved
+ * once so that a reader pool miss does not repeat the {@link XMLReaderFactory} lookup and configuration parsing. The
+ * optional Xerces and SAX 2.0.2 features are probed once per reader class and only applied thereafter if the class
+ * supports them.
+ */
+public class XMLReaderRecipe {
+    private static final String NOTIFY_CHAR_REFS_FEATURE = "http://apache.org/xml/features/scanner/notify-char-refs";
+    private static final String XMLNS_URIS_FEATURE = "http://xml.org/sax/features/xmlns-uris";
+
+    private final String driverClassName;
+    private final List<Class<?>> handlerClasses;
+    private final String[] featuresOn;
+    private final String[] featuresOff;
+    private final Map<Class<?>, Boolean[]> optionalFeatures = new ConcurrentHashMap<>();
+    private volatile Constructor<? extends XMLReader> driverConstructor;
+
+    public XMLReaderRecipe(final ResourceConfig saxDriverConfig) {
+        if (saxDriverConfig != null) {
+            driverClassName = saxDriverConfig.getResource();
+            handlerClasses = resolveHandlerClasses(saxDriverConfig.getParameters("sax-handler"));
+            featuresOn = toFeatureNames(saxDriverConfig.getParameters(AbstractParser.FEATURE_ON));
+            featuresOff = toFeatureNames(saxDriverConfig.getParameters(AbstractParser.FEATURE_OFF));
+        } else {
+            driverClassName = null;
+            handlerClasses = new ArrayList<>();
+            featuresOn = new String[0];
+            featuresOff = new String[0];
+        }
+    }
+
+    /**
+     * Creates a reader of the configured driver class or, when no driver class is configured, of the class
+     * {@link XMLReaderFactory#createXMLReader()} resolved on the first call.
+     *
+     * @return a new, unconfigured reader
+     * @throws SAXException if the reader cannot be created
+     */
+    public XMLReader newXMLReader() throws SAXException {
+        final Constructor<? extends XMLReader> constructor = driverConstructor;
+        if (constructor != null) {
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new SAXException("Failed to create XMLReader [" + constructor.getDeclaringClass().getName() + "]", e);
+            }
+        }
+
+        final XMLReader xmlReader;
+        if (driverClassName != null) {
+            xmlReader = XMLReaderFactory.createXMLReader(driverClassName);
+        } else {
+            xmlReader = XMLReaderFactory.createXMLReader();
+        }
+        driverConstructor = getConstructor(xmlReader.getClass());
+
+        return xmlReader;
+    }
+
+    /**
+     * Applies the namespace features, SAX handlers, and configured features to a reader.
+     *
+     * @param xmlReader the reader to configure
+     * @throws SAXException if the reader does not support a configured feature
+     */
+    public void configure(final XMLReader xmlReader) throws SAXException {
+        xmlReader.setFeature("http://xml.org/sax/features/namespaces", true);
+        xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+
+        for (Class<?> handlerClass : handlerClasses) {
+            final Object handler = newHandler(handlerClass);
+            if (handler instanceof EntityResolver) {
+                xmlReader.setEntityResolver((EntityResolver) handler);
+            }
+            if (handler instanceof DTDHandler) {
+                xmlReader.setDTDHandler((DTDHandler) handler);
+            }
+            if (handler instanceof ErrorHandler) {
+                xmlReader.setErrorHandler((ErrorHandler) handler);
+            }
+        }
+
+        Boolean[] supportedOptionalFeatures = optionalFeatures.get(xmlReader.getClass());
+        if (supportedOptionalFeatures == null) {
+            supportedOptionalFeatures = new Boolean[]{setOptionalFeature(xmlReader, NOTIFY_CHAR_REFS_FEATURE), setOptionalFeature(xmlReader, XMLNS_URIS_FEATURE)};
+            optionalFeatures.put(xmlReader.getClass(), supportedOptionalFeatures);
+        } else {
+            if (supportedOptionalFeatures[0]) {
+                setOptionalFeature(xmlReader, NOTIFY_CHAR_REFS_FEATURE);
+            }
+            if (supportedOptionalFeatures[1]) {
+                setOptionalFeature(xmlReader, XMLNS_URIS_FEATURE);
+            }
+        }
+
+        for (String feature : featuresOn) {
+            xmlReader.setFeature(feature, true);
+        }
+        for (String feature : featuresOff) {
+            xmlReader.setFeature(feature, false);
+        }
+    }
+
+    private static boolean setOptionalFeature(final XMLReader xmlReader, final String feature) {
+        try {
+            xmlReader.setFeature(feature, true);
+            return true;
+        } catch (Throwable t) {
+            // Not supported by this reader... Ignore
+            return false;
+        }
+    }
+
+    private static Constructor<? extends XMLReader> getConstructor(final Class<? extends XMLReader> xmlReaderClass) {
+        if (!Modifier.isPublic(xmlReaderClass.getModifiers())) {
+            return null;
+        }
+        try {
+            return xmlReaderClass.getConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static List<Class<?>> resolveHandlerClasses(final List<Parameter<?>> handlers) {
+        final List<Class<?>> handlerClasses = new ArrayList<>();
+        if (handlers != null) {
+            for (Parameter<?> handler : handlers) {
+                final String handlerName = (String) handler.getValue();
+                try {
+                    handlerClasses.add(ClassUtils.forName(handlerName, XMLReaderRecipe.class));
+                } catch (ClassNotFoundException e) {
+                    throw new SmooksException("Failed to create SAX Handler '" + handlerName + "'", e);
+                }
+            }
+        }
+        return handlerClasses;
+    }
+
+    private static Object newHandler(final Class<?> handlerClass) {
+        try {
+            return handlerClass.newInstance();
+        } catch (IllegalAccessException | InstantiationException e) {
+            throw new SmooksException("Failed to create SAX Handler '" + handlerClass.getName() + "'", e);
+        }
+    }
+
+    private static String[] toFeatureNames(final List<Parameter<?>> features) {
+        if (features == null) {
+            return new String[0];
+        }
+        final String[] featureNames = new String[features.size()];
+        for (int i = 0; i < featureNames.length; i++) {
+            featureNames[i] = (String) features.get(i).getValue();
+        }
+        return featureNames;
+    }
+
+    /**
+     * Registry entry holding the {@link XMLReaderRecipe} of each SAX driver configuration.
+     * <p/>
+     * The recipe of a SAX driver {@link ResourceConfig} is dropped when the config fires a change event, for example
+     * because one of its parameters is set or removed, and is rebuilt on the next lookup.
+     */
+    public static class Cache {
+        private final Map<ResourceConfig, XMLReaderRecipe> xmlReaderRecipes = new ConcurrentHashMap<>();
+        private final ResourceConfigChangeListener changeListener = xmlReaderRecipes::remove;
+        private volatile XMLReaderRecipe defaultXMLReaderRecipe;
+
+        public XMLReaderRecipe get(final ResourceConfig saxDriverConfig) {
+            if (saxDriverConfig == null) {
+                XMLReaderRecipe xmlReaderRecipe = defaultXMLReaderRecipe;
+                if (xmlReaderRecipe == null) {
+                    xmlReaderRecipe = new XMLReaderRecipe(null);
+                    defaultXMLReaderRecipe = xmlReaderRecipe;
+                }
+                return xmlReaderRecipe;
+            } else {
+                return xmlReaderRecipes.computeIfAbsent(saxDriverConfig, resourceConfig -> {
+                    resourceConfig.addChangeListener(changeListener);
+                    return new XMLReaderRecipe(resourceConfig);
+                });
+            }
+        }
+
+        public void invalidate() {
+            xmlReaderRecipes.clear();
+            defaultXMLReaderRecipe = null;
+        }
+    }
+}
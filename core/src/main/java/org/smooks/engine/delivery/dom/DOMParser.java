@@ -180,7 +180,7 @@ public class DOMParser extends AbstractParser {
 
                 attachXMLReader(domReader, executionContext);
                 configureReader(domReader, contentHandler, executionContext, source);
-                domReader.parse(createInputSource(source, executionContext.getContentEncoding()));
+                domReader.parse(createInputSource(source, executionContext.getContentEncoding(), domReader));
             } finally {
                 try {
                     if (domReader instanceof HierarchyChangeReader) {
@@ -203,7 +203,7 @@ public class DOMParser extends AbstractParser {
         } else {
             XMLReader domReader = createXMLReader();
             configureReader(domReader, contentHandler, null, source);
-            domReader.parse(createInputSource(source, Charset.defaultCharset().name()));
+            domReader.parse(createInputSource(source, Charset.defaultCharset().name(), domReader));
         }
     }
 }
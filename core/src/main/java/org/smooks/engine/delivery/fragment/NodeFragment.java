@@ -47,23 +47,28 @@ import org.jaxen.dom.DocumentNavigator;
 import org.jaxen.saxpath.SAXPathException;
 import org.smooks.api.SmooksException;
 import org.smooks.api.resource.config.xpath.SelectorPath;
+import org.smooks.api.resource.config.xpath.SelectorStep;
 import org.smooks.api.ExecutionContext;
 import org.smooks.api.delivery.fragment.Fragment;
 import org.smooks.api.expression.ExecutionContextExpressionEvaluator;
+import org.smooks.engine.resource.config.xpath.CompiledPattern;
 import org.smooks.engine.resource.config.xpath.IndexedSelectorPath;
 import org.smooks.engine.resource.config.xpath.JaxenPatternSelectorPath;
+import org.smooks.engine.resource.config.xpath.step.AbstractSelectorStep;
 import org.smooks.engine.resource.config.xpath.step.AttributeSelectorStep;
 import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.UserDataHandler;
 
 import javax.xml.XMLConstants;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class NodeFragment implements Fragment<Node> {
 
@@ -77,14 +82,17 @@ public class NodeFragment implements Fragment<Node> {
     public static final String RESERVATIONS_USER_DATA_KEY = "reservations";
     public static final String ID_USER_DATA_KEY = "id";
 
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
     private final Node node;
     private final boolean isReservationInheritable;
-    private String id;
-    private int hash;
+    private long id;
+    private String stringId;
 
     protected static class Reservation {
         private final Object token;
         private final boolean inheritable;
+        private boolean released;
 
         Reservation(final Object token, final boolean inheritable) {
             this.token = token;
@@ -98,44 +106,180 @@ public class NodeFragment implements Fragment<Node> {
         public boolean isInheritable() {
             return inheritable;
         }
+
+        public boolean isReleased() {
+            return released;
+        }
+    }
+
+    /**
+     * Reservations of a node. The inheritable reservations of the node's ancestors are resolved once, when the
+     * reservations are created, and shared by reference with the node's descendants until the node itself holds an
+     * inheritable reservation. Copies of the node made with importNode or cloneNode share the same reservations, so a
+     * copy detached from its ancestors still sees the reservations it inherited from them.
+     */
+    public static class Reservations {
+        private final Map<Long, Reservation> reservations = new HashMap<>();
+        private final Map<Long, Reservation> inheritedReservations;
+        private Map<Long, Reservation> inheritableReservations;
+
+        Reservations(final Map<Long, Reservation> inheritedReservations) {
+            this.inheritedReservations = inheritedReservations;
+            this.inheritableReservations = inheritedReservations;
+        }
+
+        /**
+         * @return the inheritable reservations held by this node or its ancestors, the outermost holder winning
+         */
+        protected Map<Long, Reservation> getInheritableReservations() {
+            if (inheritableReservations == null) {
+                final Map<Long, Reservation> newInheritableReservations = new HashMap<>();
+                for (Map.Entry<Long, Reservation> reservation : reservations.entrySet()) {
+                    if (reservation.getValue().isInheritable()) {
+                        newInheritableReservations.put(reservation.getKey(), reservation.getValue());
+                    }
+                }
+                for (Map.Entry<Long, Reservation> inheritedReservation : inheritedReservations.entrySet()) {
+                    if (!inheritedReservation.getValue().isReleased()) {
+                        newInheritableReservations.put(inheritedReservation.getKey(), inheritedReservation.getValue());
+                    }
+                }
+                inheritableReservations = newInheritableReservations;
+            }
+            return inheritableReservations;
+        }
+
+        /**
+         * @param id the ID of the reservation to leave out
+         * @return a copy of these reservations without the reservation for <code>id</code>, be it held by this node or
+         * inherited from its ancestors
+         */
+        public Reservations copyWithout(final long id) {
+            Map<Long, Reservation> newInheritedReservations = inheritedReservations;
+            if (newInheritedReservations.containsKey(id)) {
+                newInheritedReservations = new HashMap<>(inheritedReservations);
+                newInheritedReservations.remove(id);
+            }
+            final Reservations reservationsCopy = new Reservations(newInheritedReservations);
+            reservationsCopy.reservations.putAll(reservations);
+            reservationsCopy.reservations.remove(id);
+            reservationsCopy.inheritableReservations = null;
+
+            return reservationsCopy;
+        }
+
+        protected void put(final long id, final Reservation reservation) {
+            reservations.put(id, reservation);
+            if (reservation.isInheritable()) {
+                inheritableReservations = null;
+            }
+        }
+
+        protected void remove(final long id) {
+            final Reservation reservation = reservations.remove(id);
+            if (reservation != null && reservation.isInheritable()) {
+                // descendants holding on to the inheritable reservations of this node must no longer see it
+                reservation.released = true;
+                inheritableReservations = null;
+            }
+        }
     }
 
     public NodeFragment(final Node node) {
         this(node, false);
     }
 
+    /**
+     * Wraps a node, giving it the supplied ID unless the node already has one.
+     *
+     * @param id an ID drawn from {@link #reserveIds(int)}
+     */
+    public NodeFragment(final Node node, final boolean isReservationInheritable, final long id) {
+        this(node, isReservationInheritable);
+        final Object userDataId = node.getUserData(ID_USER_DATA_KEY);
+        if (userDataId instanceof Long) {
+            this.id = (Long) userDataId;
+        } else {
+            this.id = id;
+            node.setUserData(ID_USER_DATA_KEY, id, COPY_USER_DATA_HANDLER);
+        }
+    }
+
     public NodeFragment(final Node node, final boolean isReservationInheritable) {
         this.node = node;
         this.isReservationInheritable = isReservationInheritable;
 
-        Map<Long, Reservation> reservations = (Map<Long, Reservation>) node.getUserData(RESERVATIONS_USER_DATA_KEY);
-        if (reservations == null) {
-            reservations = new HashMap<>();
-            node.setUserData(RESERVATIONS_USER_DATA_KEY, reservations, COPY_USER_DATA_HANDLER);
+        // created up front so that copies of the node made with importNode or cloneNode share the reservations
+        getReservations(node);
+    }
+
+    /**
+     * Gets the reservations of a node, creating them if need be. Creating them looks up the reservations of the
+     * parent node, which are already there when fragments are created top-down as the document is filtered. Otherwise,
+     * the missing reservations of the ancestors are created along the way so that the ancestors are not visited again.
+     *
+     * @param node the node holding the reservations
+     * @return the node's reservations
+     */
+    protected static Reservations getReservations(final Node node) {
+        final Reservations reservations = (Reservations) node.getUserData(RESERVATIONS_USER_DATA_KEY);
+        if (reservations != null) {
+            return reservations;
         }
 
-        Node parentNode = node.getParentNode();
-        while (parentNode != null) {
-            final Map<Long, Reservation> parentNodeReservations = (Map<Long, Reservation>) parentNode.getUserData(RESERVATIONS_USER_DATA_KEY);
-            if (parentNodeReservations != null && !parentNodeReservations.isEmpty()) {
-                reservations.putAll(parentNodeReservations.entrySet().stream().filter(e -> e.getValue().isInheritable()).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        final Deque<Node> nodes = new ArrayDeque<>();
+        nodes.push(node);
+        Reservations parentReservations = null;
+        for (Node parentNode = node.getParentNode(); parentNode != null; parentNode = parentNode.getParentNode()) {
+            parentReservations = (Reservations) parentNode.getUserData(RESERVATIONS_USER_DATA_KEY);
+            if (parentReservations != null) {
+                break;
             }
-            parentNode = parentNode.getParentNode();
+            nodes.push(parentNode);
+        }
+        Map<Long, Reservation> inheritedReservations = parentReservations == null ? Collections.emptyMap() : parentReservations.getInheritableReservations();
+        Reservations nodeReservations = null;
+        while (!nodes.isEmpty()) {
+            nodeReservations = new Reservations(inheritedReservations);
+            nodes.pop().setUserData(RESERVATIONS_USER_DATA_KEY, nodeReservations, COPY_USER_DATA_HANDLER);
+            inheritedReservations = nodeReservations.getInheritableReservations();
         }
+
+        return nodeReservations;
+    }
+
+    /**
+     * Reserves a block of consecutive fragment IDs.
+     *
+     * @param count number of IDs to reserve
+     * @return the first ID of the block
+     */
+    public static long reserveIds(final int count) {
+        return ID_SEQUENCE.getAndAdd(count) + 1;
     }
 
     @Override
-    public String getId() {
-        if (id == null) {
-            id = (String) node.getUserData(ID_USER_DATA_KEY);
-            if (id == null) {
-                id = String.valueOf(Math.abs(ThreadLocalRandom.current().nextLong()));
+    public long getLongId() {
+        if (id == 0) {
+            final Object userDataId = node.getUserData(ID_USER_DATA_KEY);
+            if (userDataId instanceof Long) {
+                id = (Long) userDataId;
+            } else {
+                id = reserveIds(1);
                 node.setUserData(ID_USER_DATA_KEY, id, COPY_USER_DATA_HANDLER);
             }
         }
         return id;
     }
 
+    @Override
+    public String getId() {
+        if (stringId == null) {
+            stringId = Long.toString(getLongId());
+        }
+        return stringId;
+    }
+
     @Override
     public Node unwrap() {
         return node;
@@ -143,21 +287,35 @@ public class NodeFragment implements Fragment<Node> {
 
     @Override
     public boolean reserve(final long id, final Object token) {
-        return ((Map<Long, Reservation>) node.getUserData(RESERVATIONS_USER_DATA_KEY)).
-                computeIfAbsent(id, key -> new Reservation(token, isReservationInheritable)).
-                getToken().equals(token);
+        final Reservations reservations = getReservations(node);
+        final Reservation reservation = reservations.reservations.get(id);
+        if (reservation != null) {
+            return reservation.getToken().equals(token);
+        }
+        final Reservation inheritedReservation = reservations.inheritedReservations.get(id);
+        if (inheritedReservation != null && !inheritedReservation.isReleased()) {
+            return inheritedReservation.getToken().equals(token);
+        }
+        reservations.put(id, new Reservation(token, isReservationInheritable));
+
+        return true;
     }
 
     @Override
     public boolean release(final long id, final Object token) {
-        final Map<Long, Reservation> reservedTokens = (Map<Long, Reservation>) node.getUserData(RESERVATIONS_USER_DATA_KEY);
-        final Object reservedToken = reservedTokens.getOrDefault(id, new Reservation(token, isReservationInheritable)).getToken();
-        if (reservedToken.equals(token)) {
-            reservedTokens.remove(id);
-            return true;
-        } else {
-            return false;
+        final Reservations reservations = getReservations(node);
+        final Reservation reservation = reservations.reservations.get(id);
+        if (reservation != null) {
+            if (reservation.getToken().equals(token)) {
+                reservations.remove(id);
+                return true;
+            } else {
+                return false;
+            }
         }
+        final Reservation inheritedReservation = reservations.inheritedReservations.get(id);
+
+        return inheritedReservation == null || inheritedReservation.isReleased() || inheritedReservation.getToken().equals(token);
     }
 
     @Override
@@ -189,7 +347,9 @@ public class NodeFragment implements Fragment<Node> {
             return false;
         }
         for (int i = selectorPath.size() - 1; i >= 0; i--) {
-            if (!selectorPath.get(i).evaluate(new NodeFragment(nodeUnderTest), executionContext)) {
+            final SelectorStep selectorStep = selectorPath.get(i);
+            if (!(selectorStep instanceof AbstractSelectorStep && selectorStep.getPredicates().isEmpty()) &&
+                    !selectorStep.evaluate(new NodeFragment(nodeUnderTest), executionContext)) {
                 return false;
             }
             if (nodeUnderTest.getNodeType() == Node.ATTRIBUTE_NODE) {
@@ -203,6 +363,11 @@ public class NodeFragment implements Fragment<Node> {
     }
 
     protected boolean isPatternMatch(final Node node, final SelectorPath selectorPath) throws JaxenException {
+        final CompiledPattern compiledPattern = ((JaxenPatternSelectorPath) selectorPath).getCompiledPattern();
+        if (compiledPattern != null) {
+            return isPatternMatch(node, selectorPath, compiledPattern);
+        }
+
         final SimpleNamespaceContext simpleNamespaceContext = new SimpleNamespaceContext();
         final Properties namespaces = selectorPath.getNamespaces();
         for (String namespacePrefix : namespaces.stringPropertyNames()) {
@@ -229,6 +394,23 @@ public class NodeFragment implements Fragment<Node> {
         return isMatch;
     }
 
+    protected boolean isPatternMatch(final Node node, final SelectorPath selectorPath, final CompiledPattern compiledPattern) {
+        if (selectorPath instanceof IndexedSelectorPath &&
+                ((IndexedSelectorPath) selectorPath).getTargetSelectorStep() instanceof AttributeSelectorStep && node.getNodeType() == Node.ELEMENT_NODE) {
+            if (node.hasAttributes()) {
+                final NamedNodeMap attributes = node.getAttributes();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    if (compiledPattern.matches(attributes.item(i), selectorPath.getNamespaces())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } else {
+            return compiledPattern.matches(node, selectorPath.getNamespaces());
+        }
+    }
+
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     protected boolean assertConditionTrue(final ExecutionContext executionContext, final SelectorPath selectorPath) {
         if (selectorPath.getConditionEvaluator() == null) {
@@ -245,10 +427,7 @@ public class NodeFragment implements Fragment<Node> {
 
     @Override
     public int hashCode() {
-        if (hash == 0) {
-            hash = Objects.hash(getId());
-        }
-        return hash;
+        return Long.hashCode(getLongId());
     }
 
     @Override
@@ -259,6 +438,6 @@ public class NodeFragment implements Fragment<Node> {
         if (!(o instanceof NodeFragment)) {
             return false;
         }
-        return this.getId().equals(((NodeFragment) o).getId());
+        return getLongId() == ((NodeFragment) o).getLongId();
     }
 }
\ No newline at end of file
@@ -87,7 +87,9 @@ public class EventPointerStaticProxyInterceptor extends StaticProxyInterceptor {
 
     @Override
     public void visitChildElement(final Element childElement, final ExecutionContext executionContext) {
-        super.visitChildElement(childElement, executionContext);
+        if (new NodeFragment(childElement.getParentNode()).isMatch(getTarget().getResourceConfig().getSelectorPath(), executionContext)) {
+            super.visitChildElement(childElement, executionContext);
+        }
     }
 
 
@@ -58,8 +58,6 @@ import org.w3c.dom.*;
 import jakarta.annotation.PostConstruct;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class StreamSinkWriterInterceptor extends AbstractInterceptorVisitor implements ElementVisitor, DOMElementVisitor {
 
@@ -313,9 +311,7 @@ public class StreamSinkWriterInterceptor extends AbstractInterceptorVisitor impl
         public Object getUserData(String key) {
             final Object userData = node.getUserData(key);
             if (NodeFragment.RESERVATIONS_USER_DATA_KEY.equals(key)) {
-                final Map<Long, Object> reservedTokens = new HashMap<>((Map<Long, Object>) userData);
-                reservedTokens.remove(FragmentWriter.RESERVED_WRITE_FRAGMENT_ID);
-                return reservedTokens;
+                return userData == null ? null : ((NodeFragment.Reservations) userData).copyWithout(FragmentWriter.RESERVED_WRITE_FRAGMENT_ID);
             } else {
                 return userData;
             }
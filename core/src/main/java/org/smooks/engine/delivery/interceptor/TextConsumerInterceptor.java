@@ -108,7 +108,7 @@ public class TextConsumerInterceptor extends AbstractInterceptorVisitor implemen
     public void visitChildText(final CharacterData characterData, final ExecutionContext executionContext) throws SmooksException {
         if (isTextConsumer) {
             final Fragment<Node> parentNodeFragment = new NodeFragment(characterData.getParentNode());
-            if (parentNodeFragment.reserve(Long.parseLong(parentNodeFragment.getId()), this)) {
+            if (parentNodeFragment.reserve(parentNodeFragment.getLongId(), this)) {
                 executionContext.getMementoCaretaker().stash(new TextAccumulatorMemento(parentNodeFragment), textAccumulatorMemento -> textAccumulatorMemento.accumulateText(characterData.getTextContent()));
             }
         }
@@ -43,6 +43,7 @@
 package org.smooks.engine.delivery.sax.ng;
 
 import org.smooks.api.delivery.sax.TextType;
+import org.smooks.engine.delivery.fragment.NodeFragment;
 
 class ContentHandlerState {
     private TextType textType = TextType.TEXT;
@@ -50,6 +51,37 @@ class ContentHandlerState {
     private boolean isNullProcessor;
     private SaxNgVisitorBindings visitorBindings;
     private int maxDepth = 1;
+    private int effectiveMaxDepth = 1;
+    private int depth = -1;
+    private NodeFragment nodeFragment;
+    private DeferredElement deferredElement;
+    private ContentHandlerState childContentHandlerState;
+
+    /**
+     * Gets the state for a child element of this state's element. A state is only needed until its element ends, and
+     * siblings never overlap, so the state of the previous child is reset and handed out again.
+     */
+    public ContentHandlerState newChildContentHandlerState(final int depth) {
+        if (childContentHandlerState == null) {
+            childContentHandlerState = new ContentHandlerState();
+        } else {
+            childContentHandlerState.reset();
+        }
+        childContentHandlerState.setPreviousContentHandlerState(this);
+        childContentHandlerState.setDepth(depth);
+
+        return childContentHandlerState;
+    }
+
+    private void reset() {
+        textType = TextType.TEXT;
+        isNullProcessor = false;
+        visitorBindings = null;
+        maxDepth = 1;
+        depth = -1;
+        nodeFragment = null;
+        deferredElement = null;
+    }
 
     public ContentHandlerState getPreviousContentHandlerState() {
         return previousContentHandlerState;
@@ -61,6 +93,7 @@ class ContentHandlerState {
 
     public void setPreviousContentHandlerState(ContentHandlerState previousContentHandlerState) {
         this.previousContentHandlerState = previousContentHandlerState;
+        updateEffectiveMaxDepth();
     }
 
     public void setNullProcessor(boolean nullProcessor) {
@@ -89,5 +122,45 @@ class ContentHandlerState {
 
     public void setMaxDepth(int maxDepth) {
         this.maxDepth = maxDepth;
+        updateEffectiveMaxDepth();
+    }
+
+    /**
+     * The largest max depth of this state and its ancestor states.
+     */
+    public int getEffectiveMaxDepth() {
+        return effectiveMaxDepth;
+    }
+
+    private void updateEffectiveMaxDepth() {
+        effectiveMaxDepth = previousContentHandlerState == null ? maxDepth : Math.max(maxDepth, previousContentHandlerState.getEffectiveMaxDepth());
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public NodeFragment getNodeFragment() {
+        return nodeFragment;
+    }
+
+    public void setNodeFragment(NodeFragment nodeFragment) {
+        this.nodeFragment = nodeFragment;
+    }
+
+    public DeferredElement getDeferredElement() {
+        return deferredElement;
+    }
+
+    public void setDeferredElement(DeferredElement deferredElement) {
+        this.deferredElement = deferredElement;
+    }
+
+    public boolean isDeferred() {
+        return deferredElement != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery.sax.ng;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+
+import javax.xml.XMLConstants;
+
+/**
+ * Flyweight standing in for an element that no visitor is bound to. The start element event is captured so that the
+ * DOM {@link Element} can be built later, and only if, a descendant targeted by a visitor needs its ancestors.
+ */
+final class DeferredElement {
+
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private final String namespaceURI;
+    private final String qualifiedName;
+    private final String[] attributes;
+
+    DeferredElement(final String namespaceURI, final String qualifiedName, final Attributes attributes) {
+        this.namespaceURI = namespaceURI;
+        this.qualifiedName = qualifiedName;
+
+        final int attributeCount = attributes.getLength();
+        if (attributeCount == 0) {
+            this.attributes = NO_ATTRIBUTES;
+        } else {
+            // the parser recycles its Attributes instance so the attributes need to be copied
+            this.attributes = new String[attributeCount * 4];
+            for (int i = 0; i < attributeCount; i++) {
+                this.attributes[i * 4] = attributes.getURI(i);
+                this.attributes[i * 4 + 1] = attributes.getLocalName(i);
+                this.attributes[i * 4 + 2] = attributes.getQName(i);
+                this.attributes[i * 4 + 3] = attributes.getValue(i);
+            }
+        }
+    }
+
+    Element toElement(final Document document) {
+        final Element element = document.createElementNS(namespaceURI, qualifiedName);
+        for (int i = 0; i < attributes.length; i += 4) {
+            if (XMLConstants.NULL_NS_URI.equals(attributes[i])) {
+                element.setAttribute(attributes[i + 1], attributes[i + 3]);
+            } else {
+                element.setAttributeNS(attributes[i], attributes[i + 2], attributes[i + 3]);
+            }
+        }
+
+        return element;
+    }
+}
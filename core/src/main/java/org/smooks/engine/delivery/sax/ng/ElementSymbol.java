@@ -0,0 +1,99 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery.sax.ng;
+
+import org.smooks.api.resource.config.ResourceConfig;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Canonical representation of an element name in a {@link SaxNgContentDeliveryConfig}. It carries the element's
+ * {@link QName}, its qualified name, and the visitor bindings targeting it so that a start element event for a name
+ * already seen needs neither to parse the name nor to resolve the bindings again.
+ */
+final class ElementSymbol {
+
+    private final QName qName;
+    private final String qualifiedName;
+    private final SaxNgVisitorBindings visitorBindings;
+    private volatile SaxNgVisitorBindings documentFragmentVisitorBindings;
+    private volatile boolean isDocumentFragmentVisitorBindingsResolved;
+
+    ElementSymbol(final QName qName, final SaxNgVisitorBindings visitorBindings) {
+        this.qName = qName;
+        this.qualifiedName = qName.getPrefix().isEmpty() ? qName.getLocalPart() : qName.getPrefix() + ":" + qName.getLocalPart();
+        this.visitorBindings = visitorBindings;
+    }
+
+    public QName getQName() {
+        return qName;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Gets the bindings of visitors targeting this element anywhere in the document except at the root.
+     *
+     * @return the visitor bindings or <code>null</code> if no visitor targets this element
+     */
+    public SaxNgVisitorBindings getVisitorBindings() {
+        return visitorBindings;
+    }
+
+    /**
+     * Gets the bindings of visitors targeting this element when it is the root element, that is, the visitor bindings
+     * of {@link ResourceConfig#DOCUMENT_FRAGMENT_SELECTOR} merged with those of this element.
+     *
+     * @param saxNgContentDeliveryConfig the config this symbol belongs to
+     * @return the visitor bindings or <code>null</code> if no visitor targets this element as root
+     */
+    public SaxNgVisitorBindings getDocumentFragmentVisitorBindings(final SaxNgContentDeliveryConfig saxNgContentDeliveryConfig) {
+        if (!isDocumentFragmentVisitorBindingsResolved) {
+            documentFragmentVisitorBindings = saxNgContentDeliveryConfig.getDocumentFragmentVisitorBindings(qName);
+            isDocumentFragmentVisitorBindingsResolved = true;
+        }
+        return documentFragmentVisitorBindings;
+    }
+}
@@ -46,9 +46,13 @@ import org.smooks.api.ExecutionContext;
 import org.smooks.api.SmooksConfigException;
 import org.smooks.api.SmooksException;
 import org.smooks.api.delivery.ContentDeliveryConfig;
+import org.smooks.api.delivery.ContentHandler;
 import org.smooks.api.delivery.ContentHandlerBinding;
 import org.smooks.api.delivery.Filter;
 import org.smooks.api.delivery.FilterBypass;
+import org.smooks.api.resource.config.ResourceConfig;
+import org.smooks.api.resource.config.xpath.SelectorPath;
+import org.smooks.api.resource.config.xpath.SelectorStep;
 import org.smooks.api.resource.visitor.sax.ng.AfterVisitor;
 import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
 import org.smooks.api.resource.visitor.sax.ng.ChildrenVisitor;
@@ -56,7 +60,12 @@ import org.smooks.engine.delivery.AbstractContentDeliveryConfig;
 import org.smooks.engine.delivery.ContentHandlerBindingIndex;
 import org.smooks.engine.delivery.ordering.Sorter;
 import org.smooks.engine.lookup.GlobalParamsLookup;
+import org.smooks.engine.resource.config.xpath.IndexedSelectorPath;
+import org.smooks.engine.resource.config.xpath.step.ElementSelectorStep;
+import org.smooks.support.XmlUtils;
 
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -66,12 +75,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SaxNgContentDeliveryConfig extends AbstractContentDeliveryConfig {
 
+    static final int MAX_ELEMENT_SYMBOLS = 4096;
+
     private final Map<String, SaxNgVisitorBindings> saxNgVisitorBindingsCache = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ElementSymbol>> elementSymbolTable = new ConcurrentHashMap<>();
+    private final Map<String, ElementSymbol> noNamespaceElementSymbols = new ConcurrentHashMap<>();
+    private final AtomicInteger elementSymbolCount = new AtomicInteger();
     private final ThreadLocal<DocumentBuilder> cachedDocumentBuilder = new ThreadLocal<>();
     private final ContentHandlerBindingIndex<ChildrenVisitor> childVisitorIndex = new ContentHandlerBindingIndex<>();
     private final ContentHandlerBindingIndex<BeforeVisitor> beforeVisitorIndex = new ContentHandlerBindingIndex<>();
@@ -278,6 +294,134 @@ public class SaxNgContentDeliveryConfig extends AbstractContentDeliveryConfig {
         }
     }
 
+    /**
+     * Gets the canonical {@link ElementSymbol} for an element name as reported by a start element event. The symbol is
+     * created, and its visitor bindings resolved, the first time the name is seen. Symbols are keyed by qualified name,
+     * or by local name when the event has no qualified name, so each prefix of a namespace gets its own symbol. Once
+     * {@link #MAX_ELEMENT_SYMBOLS} symbols are held, symbols for names not yet seen are created but not kept.
+     */
+    ElementSymbol getElementSymbol(final String namespaceURI, final String localName, final String qName) {
+        final String elementSymbolKey;
+        if (qName == null || qName.isEmpty()) {
+            elementSymbolKey = localName == null ? "" : localName;
+        } else {
+            elementSymbolKey = qName;
+        }
+
+        Map<String, ElementSymbol> elementSymbols;
+        if (namespaceURI == null) {
+            elementSymbols = noNamespaceElementSymbols;
+        } else {
+            elementSymbols = elementSymbolTable.get(namespaceURI);
+        }
+
+        ElementSymbol elementSymbol = elementSymbols == null ? null : elementSymbols.get(elementSymbolKey);
+        if (elementSymbol == null) {
+            final QName elementQName = XmlUtils.toQName(namespaceURI, localName, qName);
+            elementSymbol = new ElementSymbol(elementQName, getVisitorBindings(elementQName));
+            if (elementSymbolCount.get() < MAX_ELEMENT_SYMBOLS) {
+                if (elementSymbols == null) {
+                    elementSymbols = elementSymbolTable.computeIfAbsent(namespaceURI, key -> new ConcurrentHashMap<>());
+                }
+                final ElementSymbol existingElementSymbol = elementSymbols.putIfAbsent(elementSymbolKey, elementSymbol);
+                if (existingElementSymbol == null) {
+                    elementSymbolCount.incrementAndGet();
+                } else {
+                    elementSymbol = existingElementSymbol;
+                }
+            }
+        }
+
+        return elementSymbol;
+    }
+
+    /**
+     * Gets the bindings of visitors that may target an element with the given name anywhere in the document except at
+     * the root. Bindings whose selector pins the element to another namespace are left out.
+     *
+     * @param elementQName the element name
+     * @return the visitor bindings or <code>null</code> if no visitor may target the element
+     */
+    SaxNgVisitorBindings getVisitorBindings(final QName elementQName) {
+        return filterByNamespace(get(elementQName.getLocalPart()), elementQName.getNamespaceURI());
+    }
+
+    /**
+     * Gets the bindings of visitors that may target an element with the given name when it is the root element.
+     * Bindings whose selector pins the element to another namespace are left out.
+     *
+     * @param elementQName the element name
+     * @return the visitor bindings or <code>null</code> if no visitor may target the element
+     */
+    SaxNgVisitorBindings getDocumentFragmentVisitorBindings(final QName elementQName) {
+        return filterByNamespace(get(ResourceConfig.DOCUMENT_FRAGMENT_SELECTOR, elementQName.getLocalPart()), elementQName.getNamespaceURI());
+    }
+
+    protected SaxNgVisitorBindings filterByNamespace(final SaxNgVisitorBindings visitorBindings, final String namespaceURI) {
+        if (visitorBindings == null) {
+            return null;
+        }
+        final List<ContentHandlerBinding<BeforeVisitor>> beforeVisitors = filterByNamespace(visitorBindings.getBeforeVisitors(), namespaceURI);
+        final List<ContentHandlerBinding<ChildrenVisitor>> childVisitors = filterByNamespace(visitorBindings.getChildVisitors(), namespaceURI);
+        final List<ContentHandlerBinding<AfterVisitor>> afterVisitors = filterByNamespace(visitorBindings.getAfterVisitors(), namespaceURI);
+        if (beforeVisitors == visitorBindings.getBeforeVisitors() && childVisitors == visitorBindings.getChildVisitors() && afterVisitors == visitorBindings.getAfterVisitors()) {
+            return visitorBindings;
+        }
+        if ((beforeVisitors == null || beforeVisitors.isEmpty()) && (childVisitors == null || childVisitors.isEmpty()) && (afterVisitors == null || afterVisitors.isEmpty())) {
+            return null;
+        }
+
+        final SaxNgVisitorBindings namespaceVisitorBindings = new SaxNgVisitorBindings();
+        namespaceVisitorBindings.setBeforeVisitors(beforeVisitors);
+        namespaceVisitorBindings.setChildVisitors(childVisitors);
+        namespaceVisitorBindings.setAfterVisitors(afterVisitors);
+
+        return namespaceVisitorBindings;
+    }
+
+    protected <T extends ContentHandler> List<ContentHandlerBinding<T>> filterByNamespace(final List<ContentHandlerBinding<T>> contentHandlerBindings, final String namespaceURI) {
+        if (contentHandlerBindings == null) {
+            return null;
+        }
+        final List<ContentHandlerBinding<T>> namespaceContentHandlerBindings = new ArrayList<>(contentHandlerBindings.size());
+        for (ContentHandlerBinding<T> contentHandlerBinding : contentHandlerBindings) {
+            final String targetNamespaceURI = getTargetNamespaceURI(contentHandlerBinding.getResourceConfig().getSelectorPath());
+            if (targetNamespaceURI == null || targetNamespaceURI.equals(namespaceURI)) {
+                namespaceContentHandlerBindings.add(contentHandlerBinding);
+            }
+        }
+
+        return namespaceContentHandlerBindings.size() == contentHandlerBindings.size() ? contentHandlerBindings : namespaceContentHandlerBindings;
+    }
+
+    /**
+     * Gets the namespace URI that an element must be in for a selector to match it. Only a prefixed element name in the
+     * last step of a selector constrains the namespace. An unmapped prefix resolves to the null namespace, which keeps
+     * the binding as a candidate for elements without a namespace.
+     *
+     * @param selectorPath the selector path
+     * @return the namespace URI or <code>null</code> if the selector matches elements in any namespace
+     */
+    protected String getTargetNamespaceURI(final SelectorPath selectorPath) {
+        if (!(selectorPath instanceof IndexedSelectorPath) || selectorPath.getSelector().indexOf('|') != -1) {
+            return null;
+        }
+        final SelectorStep targetSelectorStep = ((IndexedSelectorPath) selectorPath).getTargetSelectorStep();
+        if (!(targetSelectorStep instanceof ElementSelectorStep)) {
+            return null;
+        }
+        final String prefix = ((ElementSelectorStep) targetSelectorStep).getQName().getPrefix();
+        if (prefix.isEmpty() || prefix.equals("*")) {
+            return null;
+        } else if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+            return XMLConstants.XML_NS_URI;
+        } else {
+            final Properties namespaces = selectorPath.getNamespaces();
+            final String namespaceURI = namespaces != null ? namespaces.getProperty(prefix) : null;
+            return namespaceURI != null ? namespaceURI : XMLConstants.NULL_NS_URI;
+        }
+    }
+
     public boolean isRewriteEntities() {
         if (rewriteEntities == null) {
             rewriteEntities = Boolean.parseBoolean(registry.lookup(new GlobalParamsLookup()).getParameterValue(Filter.ENTITIES_REWRITE));
@@ -49,7 +49,6 @@ import org.smooks.api.delivery.ContentHandlerBinding;
 import org.smooks.api.delivery.event.ExecutionEventListener;
 import org.smooks.api.delivery.sax.TextType;
 import org.smooks.api.lifecycle.LifecycleManager;
-import org.smooks.api.resource.config.ResourceConfig;
 import org.smooks.api.resource.visitor.Visitor;
 import org.smooks.api.resource.visitor.sax.ng.AfterVisitor;
 import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
@@ -65,9 +64,9 @@ import org.smooks.engine.lifecycle.PostFragmentPhase;
 import org.smooks.engine.lookup.LifecycleManagerLookup;
 import org.smooks.engine.memento.TextAccumulatorMemento;
 import org.smooks.engine.xml.DocType;
+import org.smooks.io.BufferedSinkWriter;
+import org.smooks.io.SAXWriter;
 import org.smooks.io.Stream;
-import org.smooks.support.DomUtils;
-import org.smooks.support.XmlUtils;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -83,6 +82,8 @@ import java.util.List;
 
 public class SaxNgContentHandler extends SmooksContentHandler {
 
+    private static final int FRAGMENT_ID_BLOCK_SIZE = 1024;
+
     private final StringBuilder cdataNodeBuilder = new StringBuilder();
     private final ExecutionContext executionContext;
     private final Writer writer;
@@ -100,12 +101,22 @@ public class SaxNgContentHandler extends SmooksContentHandler {
     private ContentHandlerState currentContentHandlerState;
     private NodeFragment currentNodeFragment;
     private Document document;
+    private long nextFragmentId;
+    private long fragmentIdLimit;
 
     public SaxNgContentHandler(final ExecutionContext executionContext, final DocumentBuilder documentBuilder) {
         this(executionContext, documentBuilder, null);
     }
 
     public SaxNgContentHandler(final ExecutionContext executionContext, final DocumentBuilder documentBuilder, final SmooksContentHandler parentContentHandler) {
+        this(executionContext, documentBuilder, parentContentHandler, ((SaxNgContentDeliveryConfig) executionContext.getContentDeliveryRuntime().getContentDeliveryConfig()).getMaxNodeDepth());
+    }
+
+    /**
+     * @param maxNodeDepth depth, counting the root element as 1, from which nodes are removed from the DOM once they
+     *                     have been processed, in place of the max node depth of the delivery config. 0 keeps every node.
+     */
+    public SaxNgContentHandler(final ExecutionContext executionContext, final DocumentBuilder documentBuilder, final SmooksContentHandler parentContentHandler, final int maxNodeDepth) {
         super(executionContext, parentContentHandler);
 
         this.executionContext = executionContext;
@@ -121,7 +132,7 @@ public class SaxNgContentHandler extends SmooksContentHandler {
         globalVisitorBindings = starVisitorBindings != null ? starVisitorBindings.merge(starStarVisitorBindings) : starStarVisitorBindings;
         rewriteEntities = deliveryConfig.isRewriteEntities();
         maintainElementStack = deliveryConfig.isMaintainElementStack();
-        globalMaxNodeDepth = deliveryConfig.getMaxNodeDepth() == 0 ? Integer.MAX_VALUE : deliveryConfig.getMaxNodeDepth();
+        globalMaxNodeDepth = maxNodeDepth == 0 ? Integer.MAX_VALUE : maxNodeDepth;
         reverseVisitOrderOnVisitAfter = deliveryConfig.isReverseVisitOrderOnVisitAfter();
     }
 
@@ -129,6 +140,13 @@ public class SaxNgContentHandler extends SmooksContentHandler {
     public void close() {
     }
 
+    /**
+     * @return the document being built from the SAX events or <code>null</code> before the document is started
+     */
+    public Document getDocument() {
+        return document;
+    }
+
     @Override
     public void startDocument() {
         document = documentBuilder.newDocument();
@@ -140,31 +158,43 @@ public class SaxNgContentHandler extends SmooksContentHandler {
     @Override
     public void startElement(final StartElementEvent startEvent) {
         final boolean isRoot = (currentContentHandlerState.getPreviousContentHandlerState() == null);
-        final QName elementQName = XmlUtils.toQName(startEvent.uri, startEvent.localName, startEvent.qName);
-        final String elementName = elementQName != null ? elementQName.getLocalPart() : null;
+        final ElementSymbol elementSymbol = deliveryConfig.getElementSymbol(startEvent.uri, startEvent.localName, startEvent.qName);
+        final QName elementQName = elementSymbol.getQName();
 
         SaxNgVisitorBindings visitorBindings;
         if (isRoot) {
-            visitorBindings = deliveryConfig.get(ResourceConfig.DOCUMENT_FRAGMENT_SELECTOR, elementName);
+            visitorBindings = elementSymbol.getDocumentFragmentVisitorBindings(deliveryConfig);
         } else {
-            visitorBindings = deliveryConfig.get(elementName);
+            visitorBindings = elementSymbol.getVisitorBindings();
         }
 
         if (visitorBindings == null) {
             visitorBindings = globalVisitorBindings;
         }
 
+        // visitorBindings is only null when nothing is bound to "*", i.e., default serialization is off
         if (!maintainElementStack && visitorBindings == null) {
-            final ContentHandlerState contentHandlerState = new ContentHandlerState();
+            // no node is built so children are attached to the nearest processed ancestor
+            final ContentHandlerState contentHandlerState = currentContentHandlerState.newChildContentHandlerState(currentContentHandlerState.getDepth());
             contentHandlerState.setNullProcessor(true);
-            contentHandlerState.setPreviousContentHandlerState(currentContentHandlerState);
             currentContentHandlerState = contentHandlerState;
-            final StartFragmentExecutionEvent<Node> startFragmentEvent = new StartFragmentExecutionEvent<>(currentNodeFragment);
-            for (ExecutionEventListener executionEventListener : contentDeliveryRuntime.getExecutionEventListeners()) {
-                executionEventListener.onEvent(startFragmentEvent);
+            if (!contentDeliveryRuntime.getExecutionEventListeners().isEmpty()) {
+                final StartFragmentExecutionEvent<Node> startFragmentEvent = new StartFragmentExecutionEvent<>(currentNodeFragment);
+                for (ExecutionEventListener executionEventListener : contentDeliveryRuntime.getExecutionEventListeners()) {
+                    executionEventListener.onEvent(startFragmentEvent);
+                }
             }
+        } else if (visitorBindings == null && isDeferrable(currentContentHandlerState)) {
+            // no visitor needs this element: hold on to a flyweight instead of building the DOM node
+            final ContentHandlerState contentHandlerState = currentContentHandlerState.newChildContentHandlerState(currentContentHandlerState.getDepth() + 1);
+            contentHandlerState.setDeferredElement(new DeferredElement(elementQName.getNamespaceURI(), elementSymbol.getQualifiedName(), startEvent.attributes));
+            currentContentHandlerState = contentHandlerState;
+            currentNodeFragment = null;
         } else {
-            final Element element = document.createElementNS(elementQName.getNamespaceURI(), elementQName.getPrefix().equals("") ? elementQName.getLocalPart() : elementQName.getPrefix() + ":" + elementQName.getLocalPart());
+            if (currentContentHandlerState.isDeferred()) {
+                currentNodeFragment = materialize(currentContentHandlerState);
+            }
+            final Element element = document.createElementNS(elementQName.getNamespaceURI(), elementSymbol.getQualifiedName());
             for (int i = 0; i < startEvent.attributes.getLength(); i++) {
                 if (XMLConstants.NULL_NS_URI.equals(startEvent.attributes.getURI(i))) {
                     element.setAttribute(startEvent.attributes.getLocalName(i), startEvent.attributes.getValue(i));
@@ -173,7 +203,7 @@ public class SaxNgContentHandler extends SmooksContentHandler {
                 }
             }
 
-            if (isRoot) {
+            if (isRoot || currentNodeFragment == null) {
                 if (document.getFirstChild() != null) {
                     document.removeChild(document.getFirstChild());
                 }
@@ -190,6 +220,12 @@ public class SaxNgContentHandler extends SmooksContentHandler {
     @SuppressWarnings("RedundantThrows")
     @Override
     public void endElement(final EndElementEvent endEvent) throws SAXException {
+        if (currentContentHandlerState.isDeferred()) {
+            currentContentHandlerState = currentContentHandlerState.getPreviousContentHandlerState();
+            currentNodeFragment = currentContentHandlerState.getNodeFragment();
+            return;
+        }
+
         if (!contentDeliveryRuntime.getExecutionEventListeners().isEmpty()) {
             final EndFragmentExecutionEvent<Node> endFragmentEvent = new EndFragmentExecutionEvent<>(currentNodeFragment);
             for (ExecutionEventListener executionEventListener : contentDeliveryRuntime.getExecutionEventListeners()) {
@@ -197,8 +233,14 @@ public class SaxNgContentHandler extends SmooksContentHandler {
             }
         }
 
+        if (currentContentHandlerState.isNullProcessor()) {
+            // the current node fragment belongs to the nearest processed ancestor which is not ending yet
+            currentContentHandlerState = currentContentHandlerState.getPreviousContentHandlerState();
+            return;
+        }
+
         final Node currentNode = this.currentNodeFragment.unwrap();
-        final boolean isMaxNodeDepth = DomUtils.getDepth(currentNode) >= Math.max(globalMaxNodeDepth, findMaxNodeDepth(currentContentHandlerState));
+        final boolean isMaxNodeDepth = currentContentHandlerState.getDepth() >= getMaxNodeDepth(currentContentHandlerState);
         if (currentContentHandlerState.getVisitorBindings() != null) {
             if (isMaxNodeDepth) {
                 final TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(currentNodeFragment);
@@ -224,7 +266,11 @@ public class SaxNgContentHandler extends SmooksContentHandler {
                 }
             }
             try {
-                writer.flush();
+                if (writer instanceof BufferedSinkWriter) {
+                    ((BufferedSinkWriter) writer).flushOnFragmentEnd();
+                } else {
+                    writer.flush();
+                }
             } catch (IOException e) {
                 throw new SmooksException(e.getMessage(), e);
             }
@@ -245,25 +291,93 @@ public class SaxNgContentHandler extends SmooksContentHandler {
         if (isMaxNodeDepth) {
             parentNode.removeChild(currentNode);
         }
-        this.currentNodeFragment = new NodeFragment(parentNode);
+        // fragments may outlive their element in mementos, events and bean bindings so the parent's is reused rather than recycled
+        final NodeFragment parentNodeFragment = previousContentHandlerState.getNodeFragment();
+        this.currentNodeFragment = parentNodeFragment != null && parentNodeFragment.unwrap() == parentNode ? parentNodeFragment : new NodeFragment(parentNode);
         currentContentHandlerState = previousContentHandlerState;
     }
 
+    /**
+     * An element that no visitor is bound to does not need to be built as a DOM node provided that its parent has no
+     * child visitors to notify, that no execution event listener wants to see it, and that it would be removed from
+     * the DOM on its end element anyway.
+     * <p>
+     * Deferral, like the null processor used when the element stack is not maintained, only applies while no visitor
+     * is bound to <code>*</code>. With default serialization on, {@link org.smooks.engine.resource.visitor.SystemConsumeSerializerVisitor}
+     * is bound to <code>*</code> so every element has visitor bindings and nothing is ever deferred.
+     */
+    protected boolean isDeferrable(final ContentHandlerState parentContentHandlerState) {
+        if (!contentDeliveryRuntime.getExecutionEventListeners().isEmpty()) {
+            return false;
+        }
+        if (parentContentHandlerState.getVisitorBindings() != null) {
+            List<ContentHandlerBinding<ChildrenVisitor>> childVisitorBindings = parentContentHandlerState.getVisitorBindings().getChildVisitors();
+            if (childVisitorBindings == null && globalVisitorBindings != null) {
+                childVisitorBindings = globalVisitorBindings.getChildVisitors();
+            }
+            if (childVisitorBindings != null && !childVisitorBindings.isEmpty()) {
+                return false;
+            }
+        }
+
+        return parentContentHandlerState.getDepth() + 1 >= getMaxNodeDepth(parentContentHandlerState);
+    }
+
+    /**
+     * Builds the DOM node of a deferred element, together with any deferred ancestors, and attaches it to the document.
+     */
+    protected NodeFragment materialize(final ContentHandlerState contentHandlerState) {
+        if (contentHandlerState.isDeferred()) {
+            final Element element = contentHandlerState.getDeferredElement().toElement(document);
+            final ContentHandlerState parentContentHandlerState = contentHandlerState.getPreviousContentHandlerState();
+            if (parentContentHandlerState.getPreviousContentHandlerState() == null) {
+                if (document.getFirstChild() != null) {
+                    document.removeChild(document.getFirstChild());
+                }
+                document.appendChild(element);
+            } else {
+                materialize(parentContentHandlerState).unwrap().appendChild(element);
+            }
+            contentHandlerState.setNodeFragment(newNodeFragment(element));
+            contentHandlerState.setDeferredElement(null);
+        }
+
+        return contentHandlerState.getNodeFragment();
+    }
+
     protected int findMaxNodeDepth(final ContentHandlerState contentHandlerState) {
-        ContentHandlerState previousNodeState = contentHandlerState;
-        int maxNodeDepth = 0;
-        while (previousNodeState != null) {
-            maxNodeDepth = Math.max(previousNodeState.getMaxDepth(), maxNodeDepth);
-            previousNodeState = previousNodeState.getPreviousContentHandlerState();
+        return contentHandlerState.getEffectiveMaxDepth();
+    }
+
+    /**
+     * Depth from which nodes are removed from the DOM once they have been processed.
+     */
+    protected int getMaxNodeDepth(final ContentHandlerState contentHandlerState) {
+        return Math.max(globalMaxNodeDepth, findMaxNodeDepth(contentHandlerState));
+    }
+
+    /**
+     * Fragment IDs are reserved in blocks so that threads filtering concurrently rarely contend on the shared sequence.
+     */
+    protected long nextFragmentId() {
+        if (nextFragmentId == fragmentIdLimit) {
+            nextFragmentId = NodeFragment.reserveIds(FRAGMENT_ID_BLOCK_SIZE);
+            fragmentIdLimit = nextFragmentId + FRAGMENT_ID_BLOCK_SIZE;
         }
+        return nextFragmentId++;
+    }
 
-        return maxNodeDepth;
+    /**
+     * Wraps an element which has just been attached to the document.
+     */
+    protected NodeFragment newNodeFragment(final Element element) {
+        return new NodeFragment(element, false, nextFragmentId());
     }
 
     protected void visitBefore(final Element element, final SaxNgVisitorBindings saxNgVisitorBindings) {
-        currentNodeFragment = new NodeFragment(element);
-        final ContentHandlerState contentHandlerState = new ContentHandlerState();
-        contentHandlerState.setPreviousContentHandlerState(currentContentHandlerState);
+        currentNodeFragment = newNodeFragment(element);
+        final ContentHandlerState contentHandlerState = currentContentHandlerState.newChildContentHandlerState(currentContentHandlerState.getDepth() + 1);
+        contentHandlerState.setNodeFragment(currentNodeFragment);
         contentHandlerState.setVisitorBindings(saxNgVisitorBindings);
 
         currentContentHandlerState = contentHandlerState;
@@ -381,7 +495,8 @@ public class SaxNgContentHandler extends SmooksContentHandler {
                 }
             }
 
-            if ((DomUtils.getDepth(currentNode) + 1) >= Math.max(globalMaxNodeDepth, findMaxNodeDepth(currentContentHandlerState))) {
+            // the document counts as depth 0, same as the root element
+            if (Math.max(currentContentHandlerState.getDepth(), 0) + 1 >= getMaxNodeDepth(currentContentHandlerState)) {
                 currentNode.removeChild(characterData);
             }
         }
@@ -434,7 +549,9 @@ public class SaxNgContentHandler extends SmooksContentHandler {
 
         if (writer != null) {
             final DocType.DocumentTypeData docTypeData = DocType.getDocType(executionContext);
-            if (docTypeData != null) {
+            if (docTypeData != null && writer instanceof SAXWriter) {
+                ((SAXWriter) writer).writeDocType(docTypeData);
+            } else if (docTypeData != null) {
                 try {
                     DocType.serializeDoctype(docTypeData, writer);
                 } catch (IOException e) {
@@ -50,6 +50,9 @@ import org.smooks.api.io.Sink;
 import org.smooks.api.io.Source;
 import org.smooks.engine.delivery.AbstractFilter;
 import org.smooks.engine.delivery.sax.ng.terminate.TerminateException;
+import org.smooks.io.BufferedSinkWriter;
+import org.smooks.io.DOMBuilder;
+import org.smooks.io.SAXWriter;
 import org.smooks.io.Stream;
 import org.smooks.io.sink.DOMSink;
 import org.smooks.io.sink.JavaSink;
@@ -61,10 +64,9 @@ import org.smooks.io.source.ReaderSource;
 import org.smooks.io.source.StreamSource;
 import org.smooks.io.source.URLSource;
 import org.smooks.support.DomUtils;
-import org.smooks.support.XmlUtils;
 
 import javax.xml.parsers.DocumentBuilder;
-import java.io.StringReader;
+import java.io.IOException;
 import java.io.Writer;
 
 public class SaxNgFilter extends AbstractFilter {
@@ -105,13 +107,16 @@ public class SaxNgFilter extends AbstractFilter {
             throw new SmooksException(String.format("Unsupported [%s] sink type: SAX NG filter supports either StreamSink, DOMSink, or JavaSink", sink.getClass().getName()));
         }
 
+        Writer writer = null;
         try {
-            final Writer writer = getWriter(sink, executionContext);
+            writer = getWriter(sink, executionContext);
             executionContext.put(Stream.STREAM_WRITER_TYPED_KEY, writer);
             parser.parse(source, executionContext);
 
             if (sink instanceof DOMSink) {
-                ((DOMSink) sink).setNode(XmlUtils.parseStream(new StringReader(writer.toString())));
+                final SAXWriter saxWriter = (SAXWriter) writer;
+                saxWriter.endOfInput();
+                ((DOMSink) sink).setNode(((DOMBuilder) saxWriter.getContentHandler()).getDocument());
             } else {
                 writer.flush();
             }
@@ -119,9 +124,20 @@ public class SaxNgFilter extends AbstractFilter {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Terminated filtering on element {}", DomUtils.getXPath(e.getElement()));
             }
+            if (!(sink instanceof DOMSink)) {
+                try {
+                    writer.flush();
+                } catch (IOException ioException) {
+                    throw new SmooksException("Failed to filter source", ioException);
+                }
+            }
         } catch (Exception e) {
             throw new SmooksException("Failed to filter source", e);
         } finally {
+            if (writer instanceof BufferedSinkWriter) {
+                // write out what was filtered before a failure ahead of closing the sink underneath the buffer
+                flush(writer);
+            }
             if (closeSource) {
                 close(source);
             }
@@ -45,6 +45,7 @@ package org.smooks.engine.delivery.sax.ng;
 import org.smooks.api.Registry;
 import org.smooks.api.SmooksConfigException;
 import org.smooks.api.delivery.ContentHandlerBinding;
+import org.smooks.api.delivery.Filter;
 import org.smooks.api.delivery.event.ContentDeliveryConfigExecutionEvent;
 import org.smooks.api.resource.config.ResourceConfig;
 import org.smooks.api.resource.config.xpath.Predicate;
@@ -58,6 +59,7 @@ import org.smooks.engine.delivery.AbstractFilterProvider;
 import org.smooks.engine.delivery.DefaultContentHandlerBinding;
 import org.smooks.engine.delivery.event.DefaultContentDeliveryConfigExecutionEvent;
 import org.smooks.engine.delivery.interceptor.InterceptorVisitorChainFactory;
+import org.smooks.engine.lookup.GlobalParamsLookup;
 import org.smooks.engine.lookup.InterceptorVisitorChainFactoryLookup;
 import org.smooks.engine.lookup.NamespaceManagerLookup;
 import org.smooks.engine.resource.config.DefaultResourceConfig;
@@ -67,6 +69,7 @@ import org.smooks.engine.resource.config.xpath.predicate.PositionPredicateEvalua
 import org.smooks.engine.resource.config.xpath.step.DocumentSelectorStep;
 import org.smooks.engine.resource.config.xpath.step.ElementSelectorStep;
 import org.smooks.engine.resource.config.xpath.step.NamedSelectorStep;
+import org.smooks.engine.resource.visitor.SystemConsumeSerializerVisitor;
 
 import javax.xml.namespace.QName;
 import java.util.List;
@@ -81,6 +84,11 @@ public class SaxNgFilterProvider extends AbstractFilterProvider {
         final InterceptorVisitorChainFactory interceptorVisitorChainFactory = registry.lookup(new InterceptorVisitorChainFactoryLookup());
 
         for (ContentHandlerBinding<Visitor> visitorBinding : visitorBindings) {
+            if (visitorBinding.getContentHandler() instanceof SystemConsumeSerializerVisitor && !isDefaultSerializationOn(registry)) {
+                // the system serializer is a no-op when default serialization is off so there is no point in binding it to every element
+                contentDeliveryConfigExecutionEvents.add(new DefaultContentDeliveryConfigExecutionEvent(visitorBinding.getResourceConfig(), "Not added as a SAX NG visitor because default serialization is off."));
+                continue;
+            }
             visitorBinding.getResourceConfig().getSelectorPath().setNamespaces(registry.lookup(new NamespaceManagerLookup()).orElse(new Properties()));
 
             if (visitorBinding.getContentHandler() instanceof BeforeVisitor || visitorBinding.getContentHandler() instanceof AfterVisitor) {
@@ -128,6 +136,10 @@ public class SaxNgFilterProvider extends AbstractFilterProvider {
         return saxNgContentDeliveryConfig;
     }
 
+    protected boolean isDefaultSerializationOn(final Registry registry) {
+        return Boolean.parseBoolean(registry.lookup(new GlobalParamsLookup()).getParameterValue(Filter.DEFAULT_SERIALIZATION_ON));
+    }
+
     protected <T extends Visitor> void addPositionCounter(final ContentHandlerBinding<T> contentHandlerBinding, SaxNgContentDeliveryConfig saxNgContentDeliveryConfig) {
         SelectorPath selectorPath = contentHandlerBinding.getResourceConfig().getSelectorPath();
 
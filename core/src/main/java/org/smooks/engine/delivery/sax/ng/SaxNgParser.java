@@ -84,7 +84,7 @@ public class SaxNgParser extends AbstractParser implements Closeable {
                 ((HierarchyChangeReader) xmlReader).setHierarchyChangeListener(new XMLReaderHierarchyChangeListener(executionContext));
             }
 
-            xmlReader.parse(createInputSource(source, executionContext.getContentEncoding()));
+            xmlReader.parse(createInputSource(source, executionContext.getContentEncoding(), xmlReader));
         } finally {
             try {
                 if (xmlReader instanceof HierarchyChangeReader) {
@@ -162,8 +162,11 @@ public abstract class NodeImpl
     protected final static short NORMALIZED = 0x1<<8;
     protected final static short ID           = 0x1<<9;
 
-    /** Table for user data attached to this document nodes. */
-    protected Map userData;  // serialized as Hashtable
+    /**
+     * User data attached to this node, stored as consecutive key, data and
+     * handler slots. Unused slots are at the end and hold null.
+     */
+    protected Object[] userData;
     //
     // Constructors
     //
@@ -286,6 +289,9 @@ public abstract class NodeImpl
         // this is overriden in readonly subclasses
         newnode.isReadOnly(false);
 
+        // user data is copied by the handlers only
+        newnode.userData = null;
+
         callUserDataHandlers(this, newnode,
                                              UserDataHandler.NODE_CLONED);
 
@@ -1825,24 +1831,43 @@ public abstract class NodeImpl
     public Object setUserData(String key,
                               Object data,
                               UserDataHandler handler) {
+        int index = indexOfUserData(key);
         if (data == null) {
-            if (userData != null) {
-                Object o = userData.remove(key);
-                if (o != null) {
-                    ParentNode.UserDataRecord r = (ParentNode.UserDataRecord) o;
-                    return r.fData;
-                }
+            if (index < 0) {
+                return null;
             }
+            Object oldData = userData[index + 1];
+            int length = userData.length;
+            System.arraycopy(userData, index + 3, userData, index, length - index - 3);
+            userData[length - 3] = null;
+            userData[length - 2] = null;
+            userData[length - 1] = null;
+            return oldData;
+        }
+        if (index >= 0) {
+            Object oldData = userData[index + 1];
+            userData[index + 1] = data;
+            userData[index + 2] = handler;
+            return oldData;
+        }
+        if (userData == null) {
+            userData = new Object[6];
+            index = 0;
         } else {
-            if (userData == null) {
-                userData = new HashMap();
+            index = userData.length;
+            for (int i = 0; i < userData.length; i += 3) {
+                if (userData[i] == null) {
+                    index = i;
+                    break;
+                }
             }
-            Object o = userData.put(key, new ParentNode.UserDataRecord(data, handler));
-            if (o != null) {
-                ParentNode.UserDataRecord r = (ParentNode.UserDataRecord) o;
-                return r.fData;
+            if (index == userData.length) {
+                userData = Arrays.copyOf(userData, userData.length * 2);
             }
         }
+        userData[index] = key;
+        userData[index + 1] = data;
+        userData[index + 2] = handler;
         return null;
     }
 
@@ -1856,19 +1881,39 @@ public abstract class NodeImpl
      * @since DOM Level 3
      */
     public Object getUserData(String key) {
-        if (userData == null) {
-            return null;
-        }
-        Object o = userData.get(key);
-        if (o != null) {
-            ParentNode.UserDataRecord r = (ParentNode.UserDataRecord) o;
-            return r.fData;
+        int index = indexOfUserData(key);
+        return index < 0 ? null : userData[index + 1];
+    }
+
+    /**
+     * Returns the slot of the given key in the user data of this node.
+     * @param key The key the object is associated to.
+     * @return The index of the key slot or -1 if the key is not set.
+     */
+    private int indexOfUserData(String key) {
+        if (userData != null) {
+            for (int i = 0; i < userData.length; i += 3) {
+                Object userDataKey = userData[i];
+                if (userDataKey == null) {
+                    break;
+                }
+                if (userDataKey == key || userDataKey.equals(key)) {
+                    return i;
+                }
+            }
         }
-        return null;
+        return -1;
     }
 
 	protected Map getUserDataRecord(){
-        return userData;
+        if (userData == null || userData[0] == null) {
+            return null;
+        }
+        Map records = new HashMap();
+        for (int i = 0; i < userData.length && userData[i] != null; i += 3) {
+            records.put(userData[i], new ParentNode.UserDataRecord(userData[i + 1], (UserDataHandler) userData[i + 2]));
+        }
+        return records;
 	}
 
     //
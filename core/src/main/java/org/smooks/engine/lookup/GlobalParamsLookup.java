@@ -45,6 +45,7 @@ package org.smooks.engine.lookup;
 import org.smooks.api.ExecutionContext;
 import org.smooks.api.delivery.ContentDeliveryConfig;
 import org.smooks.api.resource.config.ResourceConfig;
+import org.smooks.api.resource.config.ResourceConfigChangeListener;
 import org.smooks.api.resource.config.ResourceConfigSeq;
 import org.smooks.engine.resource.config.GlobalParamsResourceConfig;
 import org.smooks.engine.resource.config.ParameterDecoder;
@@ -52,9 +53,11 @@ import org.smooks.engine.resource.config.TokenizedStringParameterDecoder;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
@@ -77,24 +80,34 @@ public class GlobalParamsLookup implements Function<Map<Object, Object>, GlobalP
 
     @Override
     public ParameterAccessor apply(final Map<Object, Object> registryEntries) {
-        final Map<String, Object> globalParams = new ConcurrentHashMap<>();
         final List<ResourceConfigSeq> resourceConfigSeqs = new ResourceConfigSeqsLookup().apply(Collections.unmodifiableMap(registryEntries));
+        final Cache cache = (Cache) registryEntries.get(Cache.class);
+        if (cache == null) {
+            final Set<String> systemPropertyNames = new HashSet<>();
+            return new ParameterAccessor(collectGlobalParams(resourceConfigSeqs, systemPropertyNames), systemPropertyNames);
+        } else {
+            return cache.get(resourceConfigSeqs);
+        }
+    }
 
+    /**
+     * Collects the configured global parameters. The names of the parameters that a system property of the same name
+     * overrides are added to <code>systemPropertyNames</code>: the system property itself is read on lookup.
+     */
+    protected static Map<String, Object> collectGlobalParams(final List<ResourceConfigSeq> resourceConfigSeqs, final Set<String> systemPropertyNames) {
+        final Map<String, Object> globalParams = new HashMap<>();
         for (final ResourceConfigSeq resourceConfigSeq : resourceConfigSeqs) {
             for (int i = 0; i < resourceConfigSeq.size(); i++) {
                 final ResourceConfig nextResourceConfig = resourceConfigSeq.get(i);
                 if (GlobalParamsResourceConfig.GLOBAL_PARAMETERS.equals(nextResourceConfig.getSelectorPath().getSelector())) {
                     for (Map.Entry<String, Object> globalParameter : nextResourceConfig.getParameters().entrySet()) {
                         if (globalParams.get(globalParameter.getKey()) == null) {
-                            String systemProperty = System.getProperty(globalParameter.getKey());
-                            if (systemProperty == null) {
-                                globalParams.put(globalParameter.getKey(), nextResourceConfig.getParameterValue(globalParameter.getKey()));
-                            } else {
-                                globalParams.put(globalParameter.getKey(), systemProperty);
-                            }
+                            globalParams.put(globalParameter.getKey(), nextResourceConfig.getParameterValue(globalParameter.getKey()));
+                            systemPropertyNames.add(globalParameter.getKey());
                         } else {
                             if (!nextResourceConfig.isSystem()) {
                                 globalParams.put(globalParameter.getKey(), nextResourceConfig.getParameterValue(globalParameter.getKey()));
+                                systemPropertyNames.remove(globalParameter.getKey());
                             }
                         }
                     }
@@ -102,15 +115,66 @@ public class GlobalParamsLookup implements Function<Map<Object, Object>, GlobalP
             }
         }
 
+        return globalParams;
+    }
+
+    /**
+     * Registry entry holding an immutable snapshot of the global parameters.
+     * <p/>
+     * The snapshot is rebuilt after {@link #invalidate()} is called, which the registry does whenever resource configs
+     * are registered on it, or after a {@link ResourceConfig} read into the snapshot fires a change event (e.g., a
+     * parameter is set or removed). Code adding resource configs straight to a registered {@link ResourceConfigSeq}
+     * must call {@link #invalidate()}. System properties overriding global parameters are not part of the snapshot:
+     * {@link ParameterAccessor} reads them on every lookup.
+     */
+    public static class Cache {
+        private final AtomicLong modCount = new AtomicLong();
+        private final ResourceConfigChangeListener changeListener = resourceConfig -> invalidate();
+        private volatile Snapshot snapshot;
+
+        protected ParameterAccessor get(final List<ResourceConfigSeq> resourceConfigSeqs) {
+            final long currentModCount = modCount.get();
+            Snapshot currentSnapshot = snapshot;
+            if (currentSnapshot == null || currentSnapshot.modCount != currentModCount) {
+                addChangeListener(resourceConfigSeqs);
+                final Set<String> systemPropertyNames = new HashSet<>();
+                currentSnapshot = new Snapshot(new ParameterAccessor(collectGlobalParams(resourceConfigSeqs, systemPropertyNames), systemPropertyNames), currentModCount);
+                snapshot = currentSnapshot;
+            }
+
+            return currentSnapshot.parameterAccessor;
+        }
+
+        public void invalidate() {
+            modCount.incrementAndGet();
+        }
+
+        private void addChangeListener(final List<ResourceConfigSeq> resourceConfigSeqs) {
+            for (ResourceConfigSeq resourceConfigSeq : resourceConfigSeqs) {
+                for (int i = 0; i < resourceConfigSeq.size(); i++) {
+                    resourceConfigSeq.get(i).addChangeListener(changeListener);
+                }
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private final ParameterAccessor parameterAccessor;
+        private final long modCount;
 
-        return new ParameterAccessor(globalParams);
+        private Snapshot(final ParameterAccessor parameterAccessor, final long modCount) {
+            this.parameterAccessor = parameterAccessor;
+            this.modCount = modCount;
+        }
     }
 
     public static class ParameterAccessor {
         private final Map<String, Object> globalParams;
+        private final Set<String> systemPropertyNames;
 
-        private ParameterAccessor(Map<String, Object> globalParams) {
-            this.globalParams = new ConcurrentHashMap<>(globalParams);
+        private ParameterAccessor(Map<String, Object> globalParams, Set<String> systemPropertyNames) {
+            this.globalParams = Collections.unmodifiableMap(globalParams);
+            this.systemPropertyNames = Collections.unmodifiableSet(systemPropertyNames);
         }
 
         public <T> T getParameterValue(String name) {
@@ -119,14 +183,24 @@ public class GlobalParamsLookup implements Function<Map<Object, Object>, GlobalP
 
         public <T> T getParameterValue(String name, T defaultValue) {
             T globalParam = (T) globalParams.get(name);
-            if (globalParam == null) {
-                globalParam = (T) System.getProperty(name);
+            if (globalParam == null || systemPropertyNames.contains(name)) {
+                final String systemProperty = System.getProperty(name);
+                if (systemProperty != null) {
+                    globalParam = (T) systemProperty;
+                }
             }
             return globalParam != null ? globalParam : defaultValue;
         }
 
         public Map<String, Object> getParameters() {
-            return new HashMap<>(globalParams);
+            final Map<String, Object> parameters = new HashMap<>(globalParams);
+            for (String systemPropertyName : systemPropertyNames) {
+                final String systemProperty = System.getProperty(systemPropertyName);
+                if (systemProperty != null) {
+                    parameters.put(systemPropertyName, systemProperty);
+                }
+            }
+            return parameters;
         }
     }
 }
@@ -42,12 +42,16 @@
  */
 package org.smooks.engine.lookup;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Collects all registry entries containing values with type {@link T}
+ * <p/>
+ * When the registry holds a {@link TypeIndex}, the entries are read from the index instead of scanning the registry.
  *
  * @param <T> criteria to match type
  */
@@ -61,9 +65,53 @@ public class InstanceLookup<T> implements Function<Map<Object, Object>, Map<Obje
 
     @Override
     public Map<Object, T> apply(final Map<Object, Object> registryEntries) {
+        final TypeIndex typeIndex = (TypeIndex) registryEntries.get(TypeIndex.class);
+        if (typeIndex == null) {
+            return scan(type, registryEntries);
+        } else {
+            return new HashMap<>((Map<Object, T>) typeIndex.get(type, registryEntries));
+        }
+    }
+
+    private static <T> Map<Object, T> scan(final Class<T> type, final Map<Object, Object> registryEntries) {
         return (Map<Object, T>) registryEntries.entrySet().
                 stream().
                 filter(kv -> type.isInstance(kv.getValue())).
                 collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue()));
     }
+
+    /**
+     * Registry entry mapping looked up types to the registry entries holding instances of them.
+     * <p/>
+     * A type is indexed on its first lookup. From then on, the registry keeps it up to date through
+     * {@link #onRegister(Object, Object)} and {@link #onDeRegister(Object)}, which must be called after the registry
+     * entry is added or removed.
+     */
+    public static class TypeIndex {
+        private final Map<Class<?>, Map<Object, Object>> index = new ConcurrentHashMap<>();
+
+        protected Map<Object, ?> get(final Class<?> type, final Map<Object, Object> registryEntries) {
+            final Map<Object, Object> instances = index.get(type);
+            if (instances == null) {
+                synchronized (this) {
+                    return index.computeIfAbsent(type, t -> new ConcurrentHashMap<>(scan(t, registryEntries)));
+                }
+            }
+            return instances;
+        }
+
+        public synchronized void onRegister(final Object key, final Object value) {
+            for (Map.Entry<Class<?>, Map<Object, Object>> indexEntry : index.entrySet()) {
+                if (indexEntry.getKey().isInstance(value)) {
+                    indexEntry.getValue().put(key, value);
+                }
+            }
+        }
+
+        public synchronized void onDeRegister(final Object key) {
+            for (Map<Object, Object> instances : index.values()) {
+                instances.remove(key);
+            }
+        }
+    }
 }
@@ -46,8 +46,13 @@ import org.smooks.api.converter.TypeConverterDescriptor;
 import org.smooks.api.converter.TypeConverterFactory;
 import org.smooks.engine.converter.DefaultTypeConverterDescriptor;
 
+import java.lang.reflect.Type;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SourceTargetTypeConverterFactoryLookup<S, T> implements TypeConverterFactoryLookup<S, T> {
 
@@ -59,8 +64,13 @@ public class SourceTargetTypeConverterFactoryLookup<S, T> implements TypeConvert
 
     @Override
     public TypeConverterFactory<S, T> apply(final Map<Object, Object> registryEntries) {
+        final Index index = (Index) registryEntries.get(Index.class);
         final Set<TypeConverterFactory<?, ?>> typeConverterFactories = (Set<TypeConverterFactory<?, ?>>) registryEntries.get(TYPE_CONVERTER_FACTORY_REGISTRY_KEY);
-        return lookup(typeConverterFactories);
+        if (index == null || index.getTypeConverterFactories() != typeConverterFactories) {
+            return lookup(typeConverterFactories);
+        } else {
+            return (TypeConverterFactory<S, T>) index.get(typeConverterDescriptor.getSourceType(), typeConverterDescriptor.getTargetType());
+        }
     }
 
     public TypeConverterFactory<S, T> lookup(final Set<TypeConverterFactory<?, ?>> typeConverterFactories) {
@@ -70,4 +80,122 @@ public class SourceTargetTypeConverterFactoryLookup<S, T> implements TypeConvert
                 findFirst().
                 orElse(null);
     }
+
+    /**
+     * Registry entry mapping source and target types to the highest priority {@link TypeConverterFactory} converting
+     * between them.
+     * <p/>
+     * The index is rebuilt after the {@link TypeConverterFactory} set returned by {@link #getTypeConverterFactories()}
+     * is modified or {@link #invalidate()} is called. Code modifying the backing set directly must call
+     * {@link #invalidate()}. Lookups fall back to scanning the registered set when it is not the set returned by
+     * {@link #getTypeConverterFactories()}.
+     */
+    public static class Index {
+        private final Set<TypeConverterFactory<?, ?>> typeConverterFactories;
+        private final AtomicLong modCount = new AtomicLong();
+        private volatile Map<Type, Map<Type, TypeConverterFactory<?, ?>>> index;
+        private volatile long indexedModCount = -1;
+
+        public Index(final Set<TypeConverterFactory<?, ?>> typeConverterFactories) {
+            this.typeConverterFactories = new TypeConverterFactories(typeConverterFactories);
+        }
+
+        /**
+         * Gets a view of the indexed {@link TypeConverterFactory} set. Changes made through the view invalidate the
+         * index.
+         *
+         * @return the indexed {@link TypeConverterFactory} set
+         */
+        public Set<TypeConverterFactory<?, ?>> getTypeConverterFactories() {
+            return typeConverterFactories;
+        }
+
+        public void invalidate() {
+            modCount.incrementAndGet();
+        }
+
+        protected TypeConverterFactory<?, ?> get(final Type sourceType, final Type targetType) {
+            if (indexedModCount != modCount.get()) {
+                reindex();
+            }
+            final Map<Type, TypeConverterFactory<?, ?>> targetTypeConverterFactories = index.get(sourceType);
+            return targetTypeConverterFactories == null ? null : targetTypeConverterFactories.get(targetType);
+        }
+
+        protected synchronized void reindex() {
+            final long currentModCount = modCount.get();
+            final Map<Type, Map<Type, TypeConverterFactory<?, ?>>> newIndex = new HashMap<>();
+            for (TypeConverterFactory<?, ?> typeConverterFactory : typeConverterFactories) {
+                final TypeConverterDescriptor<?, ?> descriptor = typeConverterFactory.getTypeConverterDescriptor();
+                newIndex.computeIfAbsent(descriptor.getSourceType(), sourceType -> new HashMap<>()).
+                        merge(descriptor.getTargetType(), typeConverterFactory, (o1, o2) -> o2.getTypeConverterDescriptor().getPriority().compareTo(o1.getTypeConverterDescriptor().getPriority()) > 0 ? o2 : o1);
+            }
+            index = newIndex;
+            indexedModCount = currentModCount;
+        }
+
+        private final class TypeConverterFactories extends AbstractSet<TypeConverterFactory<?, ?>> {
+            private final Set<TypeConverterFactory<?, ?>> delegate;
+
+            private TypeConverterFactories(final Set<TypeConverterFactory<?, ?>> delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public Iterator<TypeConverterFactory<?, ?>> iterator() {
+                final Iterator<TypeConverterFactory<?, ?>> iterator = delegate.iterator();
+                return new Iterator<TypeConverterFactory<?, ?>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public TypeConverterFactory<?, ?> next() {
+                        return iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        invalidate();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return delegate.size();
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return delegate.contains(o);
+            }
+
+            @Override
+            public boolean add(final TypeConverterFactory<?, ?> typeConverterFactory) {
+                final boolean added = delegate.add(typeConverterFactory);
+                if (added) {
+                    invalidate();
+                }
+                return added;
+            }
+
+            @Override
+            public boolean remove(final Object o) {
+                final boolean removed = delegate.remove(o);
+                if (removed) {
+                    invalidate();
+                }
+                return removed;
+            }
+
+            @Override
+            public void clear() {
+                delegate.clear();
+                invalidate();
+            }
+        }
+    }
 }
@@ -42,12 +42,11 @@
  */
 package org.smooks.engine.memento;
 
-import org.smooks.api.memento.Memento;
 import org.smooks.assertion.AssertArgument;
 import org.smooks.api.resource.visitor.Visitor;
 import org.smooks.api.delivery.fragment.Fragment;
 
-public abstract class AbstractVisitorMemento implements Memento {
+public abstract class AbstractVisitorMemento implements SlottedMemento {
     protected final Fragment<?> fragment;
     protected final Visitor visitor;
     protected String anchor;
@@ -72,6 +71,11 @@ public abstract class AbstractVisitorMemento implements Memento {
         return fragment;
     }
 
+    @Override
+    public Object getSlotOwner() {
+        return visitor;
+    }
+
     @Override
     public String getAnchor() {
         if (anchor == null) {
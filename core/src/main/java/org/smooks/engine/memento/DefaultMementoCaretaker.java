@@ -49,17 +49,31 @@ import org.smooks.api.memento.Memento;
 import org.smooks.api.memento.MementoCaretaker;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 
+/**
+ * Default {@link MementoCaretaker}.
+ * <p/>
+ * A {@link SlottedMemento} is stored in a per-fragment array, at the slot the caretaker assigns to its owner, class
+ * and qualifier on first sight. Other mementos are stored in the {@link TypedMap} under their anchor.
+ */
 @NotThreadSafe
 public class DefaultMementoCaretaker implements MementoCaretaker {
 
+    private static final Memento[] EMPTY_MEMENTOS = new Memento[0];
+
     private final Map<Fragment<?>, Set<String>> mementoAnchors = new HashMap<>();
+    private final Map<Fragment<?>, Memento[]> slottedMementos = new HashMap<>();
+    private final Map<Object, Slot> slots = new IdentityHashMap<>();
     private final TypedMap typedMap;
+    private int slotCount;
 
     public DefaultMementoCaretaker(final TypedMap typedMap) {
         this.typedMap = typedMap;
@@ -67,13 +81,23 @@ public class DefaultMementoCaretaker implements MementoCaretaker {
 
     @Override
     public void capture(Memento memento) {
-        mementoAnchors.computeIfAbsent(memento.getFragment(), o -> new HashSet<>()).add(memento.getAnchor());
-        typedMap.put(TypedKey.of(memento.getAnchor()), memento.copy());
+        if (memento instanceof SlottedMemento) {
+            final int slot = getSlot((SlottedMemento) memento);
+            Memento[] mementos = slottedMementos.getOrDefault(memento.getFragment(), EMPTY_MEMENTOS);
+            if (slot >= mementos.length) {
+                mementos = Arrays.copyOf(mementos, slotCount);
+                slottedMementos.put(memento.getFragment(), mementos);
+            }
+            mementos[slot] = memento.copy();
+        } else {
+            mementoAnchors.computeIfAbsent(memento.getFragment(), o -> new HashSet<>()).add(memento.getAnchor());
+            typedMap.put(TypedKey.of(memento.getAnchor()), memento.copy());
+        }
     }
 
     @Override
     public void restore(Memento memento) {
-        final Memento restoredMemento = typedMap.get(TypedKey.of(memento.getAnchor()));
+        final Memento restoredMemento = get(memento);
         if (restoredMemento != null) {
             memento.restore(restoredMemento);
         }
@@ -81,21 +105,48 @@ public class DefaultMementoCaretaker implements MementoCaretaker {
 
     @Override
     public boolean exists(Memento memento) {
-        return typedMap.get(TypedKey.of(memento.getAnchor())) != null;
+        return get(memento) != null;
     }
 
     @Override
     public void forget(Memento visitorMemento) {
-        typedMap.remove(TypedKey.of(visitorMemento.getAnchor()));
-        mementoAnchors.getOrDefault(visitorMemento.getFragment(), new HashSet<>()).remove(visitorMemento.getAnchor());
+        if (visitorMemento instanceof SlottedMemento) {
+            final Memento[] mementos = slottedMementos.get(visitorMemento.getFragment());
+            if (mementos != null) {
+                final int slot = getSlot((SlottedMemento) visitorMemento);
+                if (slot < mementos.length) {
+                    mementos[slot] = null;
+                }
+            }
+        } else {
+            typedMap.remove(TypedKey.of(visitorMemento.getAnchor()));
+            mementoAnchors.getOrDefault(visitorMemento.getFragment(), new HashSet<>()).remove(visitorMemento.getAnchor());
+        }
     }
 
     @Override
     public void forget(Fragment<?> fragment) {
-        for (final String anchor : mementoAnchors.getOrDefault(fragment, new HashSet<>())) {
-            typedMap.remove(TypedKey.of(anchor));
+        slottedMementos.remove(fragment);
+        if (!mementoAnchors.isEmpty()) {
+            for (final String anchor : mementoAnchors.getOrDefault(fragment, new HashSet<>())) {
+                typedMap.remove(TypedKey.of(anchor));
+            }
+            mementoAnchors.remove(fragment);
         }
-        mementoAnchors.remove(fragment);
+    }
+
+    /**
+     * Forgets every memento held by this caretaker. Slot assignments are kept since they only depend on the memento
+     * owners, classes and qualifiers.
+     */
+    public void clear() {
+        slottedMementos.clear();
+        for (final Set<String> anchors : mementoAnchors.values()) {
+            for (final String anchor : anchors) {
+                typedMap.remove(TypedKey.of(anchor));
+            }
+        }
+        mementoAnchors.clear();
     }
 
     @Override
@@ -106,4 +157,46 @@ public class DefaultMementoCaretaker implements MementoCaretaker {
 
         return newVisitorMemento;
     }
-}
\ No newline at end of file
+
+    protected Memento get(final Memento memento) {
+        if (memento instanceof SlottedMemento) {
+            final Memento[] mementos = slottedMementos.get(memento.getFragment());
+            if (mementos == null) {
+                return null;
+            }
+            final int slot = getSlot((SlottedMemento) memento);
+            return slot < mementos.length ? mementos[slot] : null;
+        } else {
+            return typedMap.get(TypedKey.of(memento.getAnchor()));
+        }
+    }
+
+    protected int getSlot(final SlottedMemento slottedMemento) {
+        final Object slotOwner = slottedMemento.getSlotOwner();
+        final Object slotQualifier = slottedMemento.getSlotQualifier();
+        final Slot firstSlot = slots.get(slotOwner);
+        for (Slot slot = firstSlot; slot != null; slot = slot.next) {
+            if (slot.mementoClass == slottedMemento.getClass() && Objects.equals(slot.qualifier, slotQualifier)) {
+                return slot.index;
+            }
+        }
+        final Slot slot = new Slot(slottedMemento.getClass(), slotQualifier, slotCount++, firstSlot);
+        slots.put(slotOwner, slot);
+
+        return slot.index;
+    }
+
+    private static final class Slot {
+        private final Class<?> mementoClass;
+        private final Object qualifier;
+        private final int index;
+        private final Slot next;
+
+        private Slot(final Class<?> mementoClass, final Object qualifier, final int index, final Slot next) {
+            this.mementoClass = mementoClass;
+            this.qualifier = qualifier;
+            this.index = index;
+            this.next = next;
+        }
+    }
+}
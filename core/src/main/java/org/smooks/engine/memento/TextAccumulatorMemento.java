@@ -46,11 +46,21 @@ import org.smooks.api.TypedKey;
 import org.smooks.api.delivery.fragment.Fragment;
 import org.smooks.api.memento.Memento;
 
-public class TextAccumulatorMemento implements Memento {
+/**
+ * {@link Memento} accumulating the text of a {@link Fragment}.
+ * <p/>
+ * Copies share the text buffer of the memento they are copied from rather than duplicating it. A memento only ever
+ * sees the first {@link #length} characters of its buffer, so appending to the buffer does not change the text of
+ * earlier copies. A memento appending to a buffer which was already extended by another memento branches off onto a
+ * buffer of its own. Accumulating text chunk by chunk through {@link org.smooks.api.memento.MementoCaretaker#stash}
+ * therefore costs time linear in the length of the text.
+ */
+public class TextAccumulatorMemento implements SlottedMemento {
     private static final TypedKey<String> ANCHOR_TYPED_KEY = TypedKey.of();
 
     protected final Fragment<?> fragment;
-    protected final StringBuilder stringBuilder = new StringBuilder();
+    protected StringBuilder stringBuilder = new StringBuilder();
+    protected int length;
     protected String anchor;
 
     public TextAccumulatorMemento(final Fragment<?> fragment) {
@@ -60,14 +70,18 @@ public class TextAccumulatorMemento implements Memento {
     @Override
     public Memento copy() {
         final TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(fragment);
-        textAccumulatorMemento.accumulateText(getText());
+        textAccumulatorMemento.shareText(this);
 
         return textAccumulatorMemento;
     }
 
     @Override
     public void restore(final Memento memento) {
-        stringBuilder.append(((TextAccumulatorMemento) memento).getText());
+        if (length == 0) {
+            shareText((TextAccumulatorMemento) memento);
+        } else {
+            accumulateText(((TextAccumulatorMemento) memento).getText());
+        }
     }
 
     @Override
@@ -75,6 +89,11 @@ public class TextAccumulatorMemento implements Memento {
         return fragment;
     }
 
+    @Override
+    public Object getSlotOwner() {
+        return ANCHOR_TYPED_KEY;
+    }
+
     @Override
     public String getAnchor() {
         if (anchor == null) {
@@ -84,11 +103,21 @@ public class TextAccumulatorMemento implements Memento {
     }
 
     public TextAccumulatorMemento accumulateText(final String text) {
+        if (length != stringBuilder.length()) {
+            stringBuilder = new StringBuilder(length + text.length()).append(stringBuilder, 0, length);
+        }
         stringBuilder.append(text);
+        length = stringBuilder.length();
+
         return this;
     }
 
     public String getText() {
-        return stringBuilder.toString();
+        return stringBuilder.substring(0, length);
+    }
+
+    protected void shareText(final TextAccumulatorMemento textAccumulatorMemento) {
+        stringBuilder = textAccumulatorMemento.stringBuilder;
+        length = textAccumulatorMemento.length;
     }
 }
@@ -56,7 +56,7 @@ public class TextAccumulatorVisitorMemento extends TextAccumulatorMemento {
             @Override
             public Memento copy() {
                 final TextAccumulatorVisitorMemento textAccumulatorMemento = new TextAccumulatorVisitorMemento(fragment, visitor);
-                textAccumulatorMemento.accumulateText(getText());
+                textAccumulatorMemento.shareText(TextAccumulatorVisitorMemento.this);
 
                 return textAccumulatorMemento;
             }
@@ -78,6 +78,11 @@ public class TextAccumulatorVisitorMemento extends TextAccumulatorMemento {
         visitorMemento.restore(memento);
     }
 
+    @Override
+    public Object getSlotOwner() {
+        return visitorMemento.getVisitor();
+    }
+
     @Override
     public String getAnchor() {
         return visitorMemento.getAnchor();
@@ -81,6 +81,11 @@ public class VisitorMemento<T> extends AbstractVisitorMemento {
         return typedKey;
     }
 
+    @Override
+    public Object getSlotQualifier() {
+        return typedKey;
+    }
+
     @Override
     public String getAnchor() {
         if (anchor == null) {
@@ -66,7 +66,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -74,6 +73,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public class DefaultResourceConfig implements ResourceConfig {
 
@@ -137,7 +137,7 @@ public class DefaultResourceConfig implements ResourceConfig {
     /**
      * Change listeners.
      */
-    private final Set<ResourceConfigChangeListener> changeListeners = new HashSet<>();
+    private final Set<ResourceConfigChangeListener> changeListeners = new CopyOnWriteArraySet<>();
 
     /**
      * Public default constructor.
@@ -411,6 +411,7 @@ public class DefaultResourceConfig implements ResourceConfig {
             ((List<Object>) existingParam).add(parameter);
         }
         parameterCount++;
+        fireChangedEvent();
     }
 
     @Override
@@ -487,7 +488,9 @@ public class DefaultResourceConfig implements ResourceConfig {
 
     @Override
     public void removeParameter(String name) {
-        parameters.remove(name);
+        if (parameters != null && parameters.remove(name) != null) {
+            fireChangedEvent();
+        }
     }
 
     @Override
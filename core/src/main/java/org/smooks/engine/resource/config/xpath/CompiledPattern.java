@@ -0,0 +1,262 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.resource.config.xpath;
+
+import org.jaxen.expr.DefaultAllNodeStep;
+import org.jaxen.expr.DefaultNameStep;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NumberExpr;
+import org.jaxen.expr.Predicate;
+import org.jaxen.expr.Step;
+import org.jaxen.expr.UnionExpr;
+import org.jaxen.saxpath.Axis;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Properties;
+
+/**
+ * Allocation-free equivalent of the Jaxen {@link org.jaxen.pattern.Pattern} that {@link PatternParser} builds for a
+ * selector. Patterns are compiled into a chain of node tests which is matched by walking up from the node under test
+ * to its ancestors, so a match costs no more than the depth of the pattern.
+ * <p>
+ * Only selectors made up of name and <code>node()</code> steps can be compiled. Selectors with filter predicates,
+ * functions or other node types are left to Jaxen.
+ */
+public final class CompiledPattern {
+
+    private final NodeTest[] alternatives;
+
+    private CompiledPattern(final NodeTest[] alternatives) {
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * Compiles the XPath expression of a selector.
+     *
+     * @param expr the root expression of the selector
+     * @return the compiled pattern or <code>null</code> if the expression has to be matched with Jaxen
+     */
+    public static CompiledPattern compile(final Expr expr) {
+        final List<NodeTest> alternatives = new ArrayList<>();
+        if (compile(expr, alternatives)) {
+            return new CompiledPattern(alternatives.toArray(new NodeTest[0]));
+        } else {
+            return null;
+        }
+    }
+
+    private static boolean compile(final Expr expr, final List<NodeTest> alternatives) {
+        if (expr instanceof UnionExpr) {
+            return compile(((UnionExpr) expr).getLHS(), alternatives) && compile(((UnionExpr) expr).getRHS(), alternatives);
+        } else if (expr instanceof LocationPath) {
+            final NodeTest nodeTest = compile((LocationPath) expr);
+            if (nodeTest == null) {
+                return false;
+            }
+            alternatives.add(nodeTest);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private static NodeTest compile(final LocationPath locationPath) {
+        final List<?> steps = locationPath.getSteps();
+        if (steps.isEmpty()) {
+            return null;
+        }
+
+        NodeTest target = null;
+        NodeTest nodeTest = null;
+        for (ListIterator<?> stepIterator = steps.listIterator(steps.size()); stepIterator.hasPrevious(); ) {
+            final Step step = (Step) stepIterator.previous();
+            final NodeTest stepNodeTest = compile(step);
+            if (stepNodeTest == null) {
+                return null;
+            }
+            if (target == null) {
+                target = stepNodeTest;
+            } else {
+                nodeTest.up = stepNodeTest;
+                nodeTest.ancestor = step.getAxis() == Axis.DESCENDANT || step.getAxis() == Axis.DESCENDANT_OR_SELF;
+            }
+            nodeTest = stepNodeTest;
+        }
+        if (locationPath.isAbsolute()) {
+            nodeTest.up = new NodeTest(Node.DOCUMENT_NODE, null, null);
+        }
+
+        return target;
+    }
+
+    private static NodeTest compile(final Step step) {
+        final short nodeType = step.getAxis() == Axis.ATTRIBUTE ? Node.ATTRIBUTE_NODE : Node.ELEMENT_NODE;
+        if (step instanceof DefaultNameStep) {
+            for (Object predicate : step.getPredicates()) {
+                final Expr predicateExpr = ((Predicate) predicate).getExpr();
+                if (!(predicateExpr instanceof NumberExpr) && !PatternParser.containsTextNode(predicateExpr)) {
+                    return null;
+                }
+            }
+            final DefaultNameStep nameStep = (DefaultNameStep) step;
+            final String prefix = nameStep.getPrefix();
+            if (nameStep.isMatchesAnyName()) {
+                if (prefix.isEmpty() || prefix.equals("*")) {
+                    return new NodeTest(nodeType, null, null);
+                } else {
+                    return new NodeTest(nodeType, null, prefix);
+                }
+            } else {
+                return new NodeTest(nodeType, nameStep.getLocalName(), prefix.isEmpty() ? null : prefix);
+            }
+        } else if (step instanceof DefaultAllNodeStep) {
+            return new NodeTest(nodeType, null, null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Tests whether a node matches this pattern.
+     *
+     * @param node       the node under test
+     * @param namespaces the namespace prefix mappings of the selector
+     * @return <code>true</code> if the node matches any of the pattern alternatives
+     */
+    public boolean matches(final Node node, final Properties namespaces) {
+        for (NodeTest alternative : alternatives) {
+            if (alternative.matches(node, namespaces)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node getParentNode(final Node node) {
+        if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+            return ((Attr) node).getOwnerElement();
+        } else {
+            return node.getParentNode();
+        }
+    }
+
+    private static final class NodeTest {
+        private final short nodeType;
+        private final String localName;
+        private final String prefix;
+        private NodeTest up;
+        private boolean ancestor;
+
+        private NodeTest(final short nodeType, final String localName, final String prefix) {
+            this.nodeType = nodeType;
+            this.localName = localName;
+            this.prefix = prefix;
+        }
+
+        private boolean matches(final Node node, final Properties namespaces) {
+            NodeTest nodeTest = this;
+            Node nodeUnderTest = node;
+            while (nodeTest.test(nodeUnderTest, namespaces)) {
+                if (nodeTest.up == null) {
+                    return true;
+                }
+                final Node parentNode = getParentNode(nodeUnderTest);
+                if (nodeTest.ancestor) {
+                    for (Node ancestorNode = parentNode; ancestorNode != null; ancestorNode = getParentNode(ancestorNode)) {
+                        if (nodeTest.up.matches(ancestorNode, namespaces)) {
+                            return true;
+                        }
+                        if (ancestorNode.getNodeType() == Node.DOCUMENT_NODE) {
+                            return false;
+                        }
+                    }
+                    return false;
+                }
+                if (parentNode == null) {
+                    return false;
+                }
+                nodeUnderTest = parentNode;
+                nodeTest = nodeTest.up;
+            }
+
+            return false;
+        }
+
+        private boolean test(final Node node, final Properties namespaces) {
+            switch (nodeType) {
+                case Node.DOCUMENT_NODE:
+                    return node.getNodeType() == Node.DOCUMENT_NODE;
+                case Node.ELEMENT_NODE:
+                    if (node.getNodeType() != Node.ELEMENT_NODE) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (node.getNodeType() != Node.ATTRIBUTE_NODE || XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(node.getNamespaceURI())) {
+                        return false;
+                    }
+            }
+            if (localName != null) {
+                final String nodeLocalName = node.getLocalName();
+                if (!localName.equals(nodeLocalName == null ? node.getNodeName() : nodeLocalName)) {
+                    return false;
+                }
+            }
+            if (prefix != null) {
+                String namespaceURI = XMLConstants.XML_NS_PREFIX.equals(prefix) ? XMLConstants.XML_NS_URI : namespaces.getProperty(prefix);
+                if (namespaceURI == null) {
+                    namespaceURI = XMLConstants.NULL_NS_URI;
+                }
+                return namespaceURI.equals(node.getNamespaceURI());
+            }
+
+            return true;
+        }
+    }
+}
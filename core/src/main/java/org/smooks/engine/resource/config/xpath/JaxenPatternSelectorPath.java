@@ -42,17 +42,21 @@
  */
 package org.smooks.engine.resource.config.xpath;
 
+import org.jaxen.expr.Expr;
 import org.jaxen.pattern.Pattern;
 import org.jaxen.saxpath.SAXPathException;
 import org.smooks.api.SmooksException;
 
 public abstract class JaxenPatternSelectorPath extends AbstractSelectorPath {
     protected final Pattern pattern;
+    protected final CompiledPattern compiledPattern;
 
     public JaxenPatternSelectorPath(final String selector) {
         this.selector = selector;
         try {
-            this.pattern = PatternParser.parse(selector);
+            final Expr expr = PatternParser.parseExpr(selector);
+            this.pattern = PatternParser.parse(expr);
+            this.compiledPattern = CompiledPattern.compile(expr);
         } catch (SAXPathException e) {
             throw new SmooksException(e);
         }
@@ -61,4 +65,13 @@ public abstract class JaxenPatternSelectorPath extends AbstractSelectorPath {
     public Pattern getPattern() {
         return pattern;
     }
+
+    /**
+     * Gets the compiled form of this selector's pattern.
+     *
+     * @return the compiled pattern or <code>null</code> if the selector can only be matched with {@link #getPattern()}
+     */
+    public CompiledPattern getCompiledPattern() {
+        return compiledPattern;
+    }
 }
@@ -149,16 +149,24 @@ public class PatternParser {
 
             return handler.getPattern();
         } else {
-            XPathReader reader = XPathReaderFactory.createReader();
-            JaxenHandler handler = new JaxenHandler();
+            return parse(parseExpr(text));
+        }
+    }
 
-            handler.setXPathFactory(new DefaultXPathFactory());
-            reader.setXPathHandler(handler);
-            reader.parse(text);
+    public static Expr parseExpr(String text) throws JaxenException, org.jaxen.saxpath.SAXPathException {
+        XPathReader reader = XPathReaderFactory.createReader();
+        JaxenHandler handler = new JaxenHandler();
 
-            Pattern pattern = convertExpr(handler.getXPathExpr().getRootExpr());
-            return pattern.simplify();
-        }
+        handler.setXPathFactory(new DefaultXPathFactory());
+        reader.setXPathHandler(handler);
+        reader.parse(text);
+
+        return handler.getXPathExpr().getRootExpr();
+    }
+
+    public static Pattern parse(Expr expr) throws JaxenException {
+        Pattern pattern = convertExpr(expr);
+        return pattern.simplify();
     }
 
     protected static Pattern convertExpr(Expr expr) throws JaxenException {
@@ -54,6 +54,8 @@ import org.smooks.engine.delivery.event.FragmentExecutionEvent;
 import org.smooks.engine.delivery.sax.ng.pointer.EventPointerAwareExecutionEventListener;
 import org.smooks.engine.delivery.event.EndFragmentExecutionEvent;
 import org.smooks.engine.delivery.event.StartFragmentExecutionEvent;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 import java.io.Writer;
@@ -62,19 +64,29 @@ class ChildEventListener extends EventPointerAwareExecutionEventListener {
     private final NestedSmooksVisitor nestedSmooksVisitor;
     private final NodeFragment visitedFragment;
     private final Writer selectorWriter;
+    private final PipelineEventReplay pipelineEventReplay;
     private int currentNodeDepth;
 
-    public ChildEventListener(final NestedSmooksVisitor nestedSmooksVisitor, final Writer selectorWriter, final NodeFragment visitedFragment, final ExecutionContext executionContext) {
+    /**
+     * @param pipelineEventReplay the replay the events are forwarded to or <code>null</code> to filter a copy of the
+     *                            visited fragment with the pipeline on each event
+     */
+    public ChildEventListener(final NestedSmooksVisitor nestedSmooksVisitor, final Writer selectorWriter, final NodeFragment visitedFragment, final PipelineEventReplay pipelineEventReplay, final ExecutionContext executionContext) {
         super(executionContext);
         this.nestedSmooksVisitor = nestedSmooksVisitor;
         this.selectorWriter = selectorWriter;
         this.visitedFragment = visitedFragment;
+        this.pipelineEventReplay = pipelineEventReplay;
     }
 
     @Override
     public void doOnEvent(final ExecutionEvent executionEvent) {
         if (executionEvent instanceof FragmentExecutionEvent) {
             final Fragment<Node> childFragment = ((FragmentExecutionEvent<Node>) executionEvent).getFragment();
+            if (pipelineEventReplay != null) {
+                replay(executionEvent, childFragment);
+                return;
+            }
             final VisitorMemento<Node> sourceTreeMemento = new SimpleVisitorMemento<>(visitedFragment, nestedSmooksVisitor, visitedFragment.unwrap());
             executionContext.getMementoCaretaker().restore(sourceTreeMemento);
 
@@ -92,6 +104,20 @@ class ChildEventListener extends EventPointerAwareExecutionEventListener {
         }
     }
 
+    protected void replay(final ExecutionEvent executionEvent, final Fragment<Node> childFragment) {
+        if (executionEvent instanceof StartFragmentExecutionEvent) {
+            if (!visitedFragment.equals(childFragment)) {
+                pipelineEventReplay.startElement((Element) childFragment.unwrap());
+            }
+        } else if (executionEvent instanceof CharDataFragmentExecutionEvent) {
+            pipelineEventReplay.characters((CharacterData) childFragment.unwrap());
+        } else if (executionEvent instanceof EndFragmentExecutionEvent) {
+            if (!visitedFragment.equals(childFragment)) {
+                pipelineEventReplay.endElement((Element) childFragment.unwrap());
+            }
+        }
+    }
+
     protected void visitBefore(final VisitorMemento<Node> sourceTreeMemento, final Fragment<Node> childFragment) {
         final Node childNode = sourceTreeMemento.getState().getOwnerDocument().importNode(childFragment.unwrap(), true);
         nestedSmooksVisitor.filterSource(visitedFragment, new NodeFragment(sourceTreeMemento.getState().appendChild(childNode)), selectorWriter, executionContext, VisitSequence.BEFORE);
@@ -54,6 +54,7 @@ import org.smooks.api.Registry;
 import org.smooks.api.SmooksException;
 import org.smooks.api.TypedKey;
 import org.smooks.api.bean.repository.BeanId;
+import org.smooks.api.delivery.ContentDeliveryConfig;
 import org.smooks.api.delivery.Filter;
 import org.smooks.api.delivery.fragment.Fragment;
 import org.smooks.api.delivery.ordering.Consumer;
@@ -66,9 +67,12 @@ import org.smooks.api.resource.visitor.sax.ng.AfterVisitor;
 import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
 import org.smooks.assertion.AssertArgument;
 import org.smooks.engine.DefaultApplicationContextBuilder;
+import org.smooks.engine.DefaultExecutionContext;
 import org.smooks.engine.DefaultFilterSettings;
+import org.smooks.engine.delivery.AbstractParser;
 import org.smooks.engine.delivery.event.VisitSequence;
 import org.smooks.engine.delivery.fragment.NodeFragment;
+import org.smooks.engine.delivery.sax.ng.SaxNgContentDeliveryConfig;
 import org.smooks.engine.delivery.sax.ng.pointer.EventPointer;
 import org.smooks.engine.lookup.GlobalParamsLookup;
 import org.smooks.engine.memento.SimpleVisitorMemento;
@@ -100,6 +104,9 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -119,7 +126,12 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
     }
 
     static final TypedKey<ExecutionContext> PIPELINE_EXECUTION_CONTEXT_MEMENTO_TYPED_KEY = TypedKey.of();
+    static final TypedKey<PipelineEventReplay> PIPELINE_EVENT_REPLAY_MEMENTO_TYPED_KEY = TypedKey.of();
     protected static final TypedKey<DocumentBuilder> CACHED_DOCUMENT_BUILDER_TYPED_KEY = TypedKey.of();
+    protected static final TypedKey<Map<VisitSequence, EventPointer>> CACHED_EVENT_POINTERS_TYPED_KEY = TypedKey.of();
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+    protected final TypedKey<Deque<ExecutionContext>> pipelineExecutionContextPoolTypedKey = TypedKey.of();
 
     protected BeanId bindBeanId;
 
@@ -211,11 +223,15 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
     public void onPreExecution(final ExecutionContext executionContext) {
         final DocumentBuilder documentBuilder;
         try {
-            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            }
         } catch (ParserConfigurationException e) {
             throw new SmooksException(e);
         }
         executionContext.put(CACHED_DOCUMENT_BUILDER_TYPED_KEY, documentBuilder);
+        executionContext.put(CACHED_EVENT_POINTERS_TYPED_KEY, new EnumMap<>(VisitSequence.class));
+        executionContext.put(pipelineExecutionContextPoolTypedKey, new ArrayDeque<>());
     }
 
     protected Node deAttach(final Node node, ExecutionContext executionContext) {
@@ -229,24 +245,31 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
 
     @Override
     public void visitBefore(final Element element, final ExecutionContext executionContext) {
-        final Node deAttachedVistedNode = deAttach(element, executionContext);
+        // the fragment holds the element's reservations, including inherited ones, which the pipeline's root then shares
         final NodeFragment visitedFragment = new NodeFragment(element);
-        executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(visitedFragment, this, deAttachedVistedNode));
+        final NodeFragment deAttachedVisitedNodeFragment;
+        if (isEventReplayable(getPipelineExecutionContext(visitedFragment, executionContext))) {
+            // the pipeline builds its own tree from the replayed events so the element need not be copied
+            deAttachedVisitedNodeFragment = visitedFragment;
+        } else {
+            final Node deAttachedVistedNode = deAttach(element, executionContext);
+            executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(visitedFragment, this, deAttachedVistedNode));
+            deAttachedVisitedNodeFragment = new NodeFragment(deAttachedVistedNode);
+        }
 
-        final NodeFragment deAttachedVisitedNodeFragment = new NodeFragment(deAttachedVistedNode);
         final Writer nodeWriter;
         if (action == null) {
-            filterSource(visitedFragment, deAttachedVisitedNodeFragment, Stream.out(executionContext), executionContext, VisitSequence.BEFORE);
+            filterBefore(visitedFragment, deAttachedVisitedNodeFragment, Stream.out(executionContext), executionContext);
             nodeWriter = Stream.out(executionContext);
         } else {
             if (action == Action.OUTPUT_TO) {
                 final ResourceWriter resourceWriter = new ResourceWriter(executionContext, outputStreamResourceOptional.get());
                 if (resourceWriter.getDelegateWriter() == null) {
-                    filterSource(visitedFragment, deAttachedVisitedNodeFragment, null, executionContext, VisitSequence.BEFORE);
+                    filterBefore(visitedFragment, deAttachedVisitedNodeFragment, null, executionContext);
                     nodeWriter = null;
                 } else {
                     executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(deAttachedVisitedNodeFragment, this, resourceWriter));
-                    filterSource(visitedFragment, deAttachedVisitedNodeFragment, resourceWriter, executionContext, VisitSequence.BEFORE);
+                    filterBefore(visitedFragment, deAttachedVisitedNodeFragment, resourceWriter, executionContext);
                     nodeWriter = resourceWriter.getDelegateWriter();
                 }
             } else {
@@ -262,21 +285,23 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
                         }
                     }
                     executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(deAttachedVisitedNodeFragment, this, fragmentWriter));
-                    filterSource(visitedFragment, deAttachedVisitedNodeFragment, fragmentWriter, executionContext, VisitSequence.BEFORE);
+                    filterBefore(visitedFragment, deAttachedVisitedNodeFragment, fragmentWriter, executionContext);
                     nodeWriter = fragmentWriter;
                 } else if (action == Action.REPLACE) {
                     nodeWriter = replaceBefore(visitedFragment, deAttachedVisitedNodeFragment.unwrap(), executionContext);
                 } else if (action == Action.BIND_TO) {
                     nodeWriter = new StringWriter();
                     executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(deAttachedVisitedNodeFragment, this, nodeWriter));
-                    filterSource(visitedFragment, deAttachedVisitedNodeFragment, nodeWriter, executionContext, VisitSequence.BEFORE);
+                    filterBefore(visitedFragment, deAttachedVisitedNodeFragment, nodeWriter, executionContext);
                 } else {
                     throw new UnsupportedOperationException();
                 }
             }
         }
 
-        final ChildEventListener childEventListener = new ChildEventListener(this, nodeWriter, visitedFragment, executionContext);
+        final VisitorMemento<PipelineEventReplay> pipelineEventReplayMemento = new VisitorMemento<>(visitedFragment, this, PIPELINE_EVENT_REPLAY_MEMENTO_TYPED_KEY);
+        executionContext.getMementoCaretaker().restore(pipelineEventReplayMemento);
+        final ChildEventListener childEventListener = new ChildEventListener(this, nodeWriter, visitedFragment, pipelineEventReplayMemento.getState(), executionContext);
         executionContext.getContentDeliveryRuntime().addExecutionEventListener(childEventListener);
         executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(visitedFragment, this, childEventListener));
     }
@@ -289,11 +314,11 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
         final NodeFragment deAttachedNodeFragment = new NodeFragment(deAttachedNodeMemento.getState());
 
         if (action == null) {
-            filterSource(visitedFragment, deAttachedNodeFragment, Stream.out(executionContext), executionContext, VisitSequence.AFTER);
+            filterAfter(visitedFragment, deAttachedNodeFragment, Stream.out(executionContext), executionContext);
         } else {
             if (action == Action.OUTPUT_TO) {
                 final ResourceWriter resourceWriter = executionContext.getMementoCaretaker().stash(new SimpleVisitorMemento<>(deAttachedNodeFragment, this, new ResourceWriter(executionContext, outputStreamResourceOptional.get())), resourceWriterMemento -> resourceWriterMemento).getState();
-                filterSource(visitedFragment, deAttachedNodeFragment, resourceWriter, executionContext, VisitSequence.AFTER);
+                filterAfter(visitedFragment, deAttachedNodeFragment, resourceWriter, executionContext);
             } else {
                 if (action == Action.APPEND_BEFORE || action == Action.APPEND_AFTER) {
                     append(visitedFragment, (Element) deAttachedNodeFragment.unwrap(), action, executionContext);
@@ -304,7 +329,7 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
                 } else if (action == Action.BIND_TO) {
                     final VisitorMemento<StringWriter> memento = new SimpleVisitorMemento<>(deAttachedNodeFragment, this, new StringWriter());
                     executionContext.getMementoCaretaker().restore(memento);
-                    filterSource(visitedFragment, deAttachedNodeFragment, memento.getState(), executionContext, VisitSequence.AFTER);
+                    filterAfter(visitedFragment, deAttachedNodeFragment, memento.getState(), executionContext);
                     executionContext.getBeanContext().addBean(bindBeanId, memento.getState().toString(), deAttachedNodeFragment);
                 } else {
                     throw new UnsupportedOperationException();
@@ -322,7 +347,7 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
             throw new SmooksException(e);
         }
         executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(rootNodeFragment, this, fragmentWriter));
-        filterSource(visitedNodeFragment, rootNodeFragment, fragmentWriter, executionContext, VisitSequence.BEFORE);
+        filterBefore(visitedNodeFragment, rootNodeFragment, fragmentWriter, executionContext);
 
         return fragmentWriter;
     }
@@ -332,7 +357,7 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
         final VisitorMemento<FragmentWriter> fragmentWriterVisitorMemento = new SimpleVisitorMemento<>(rootNodeFragment, this, new FragmentWriter(executionContext, new NodeFragment(rootNode)));
         executionContext.getMementoCaretaker().restore(fragmentWriterVisitorMemento);
 
-        filterSource(visitedNodeFragment, rootNodeFragment, fragmentWriterVisitorMemento.getState(), executionContext, VisitSequence.AFTER);
+        filterAfter(visitedNodeFragment, rootNodeFragment, fragmentWriterVisitorMemento.getState(), executionContext);
     }
 
     protected Writer prependBefore(final Fragment<Node> visitedNodeFragment, final Action action, final Element rootElement, final ExecutionContext executionContext) {
@@ -344,7 +369,7 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
                 domSerializer.writeStartElement(rootElement, fragmentWriter);
             }
             executionContext.getMementoCaretaker().capture(new SimpleVisitorMemento<>(rootNodeFragment, this, fragmentWriter));
-            filterSource(visitedNodeFragment, rootNodeFragment, fragmentWriter, executionContext, VisitSequence.BEFORE);
+            filterBefore(visitedNodeFragment, rootNodeFragment, fragmentWriter, executionContext);
         } catch (IOException e) {
             throw new SmooksException(e);
         }
@@ -356,13 +381,13 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
         final NodeFragment rootNodeFragment = new NodeFragment(rootElement);
         final VisitorMemento<FragmentWriter> fragmentWriterMemento = new SimpleVisitorMemento<>(rootNodeFragment, this, new FragmentWriter(executionContext, rootNodeFragment));
         executionContext.getMementoCaretaker().restore(fragmentWriterMemento);
-        filterSource(visitedNodeFragment, rootNodeFragment, fragmentWriterMemento.getState(), executionContext, VisitSequence.AFTER);
+        final Node filteredRootNode = filterAfter(visitedNodeFragment, rootNodeFragment, fragmentWriterMemento.getState(), executionContext);
         try {
             if (executionContext.getContentDeliveryRuntime().getContentDeliveryConfig().isDefaultSerializationOn() && action == Action.PREPEND_BEFORE) {
                 domSerializer.writeStartElement(rootElement, fragmentWriterMemento.getState());
             }
             if (executionContext.getContentDeliveryRuntime().getContentDeliveryConfig().isDefaultSerializationOn()) {
-                fragmentWriterMemento.getState().write(XmlUtils.serialize(rootElement.getChildNodes(), Boolean.parseBoolean(executionContext.getApplicationContext().getRegistry().lookup(new GlobalParamsLookup()).getParameterValue(Filter.CLOSE_EMPTY_ELEMENTS))));
+                fragmentWriterMemento.getState().write(XmlUtils.serialize(filteredRootNode.getChildNodes(), Boolean.parseBoolean(executionContext.getApplicationContext().getRegistry().lookup(new GlobalParamsLookup()).getParameterValue(Filter.CLOSE_EMPTY_ELEMENTS))));
                 domSerializer.writeEndElement(rootElement, fragmentWriterMemento.getState());
             }
         } catch (IOException e) {
@@ -379,7 +404,7 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
             if (executionContext.getContentDeliveryRuntime().getContentDeliveryConfig().isDefaultSerializationOn() && action == Action.APPEND_AFTER) {
                 domSerializer.writeEndElement(rootElement, fragmentWriterMemento.getState());
             }
-            filterSource(visitedNodeFragment, rootNodeFragment, fragmentWriterMemento.getState(), executionContext, VisitSequence.AFTER);
+            filterAfter(visitedNodeFragment, rootNodeFragment, fragmentWriterMemento.getState(), executionContext);
             if (executionContext.getContentDeliveryRuntime().getContentDeliveryConfig().isDefaultSerializationOn() && action == Action.APPEND_BEFORE) {
                 domSerializer.writeEndElement(rootElement, fragmentWriterMemento.getState());
             }
@@ -388,14 +413,63 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
         }
     }
 
-    protected void filterSource(final Fragment<Node> originalVisitedNodeFragment, final Fragment<Node> deAttachedVisitedNodeFragment, final Writer writer, final ExecutionContext executionContext, final VisitSequence visitSequence) {
+    /**
+     * Starts filtering the visited fragment with the pipeline. When the pipeline can take events, the pipeline is fed
+     * the events of the fragment as they happen instead of filtering each event as a source of its own.
+     */
+    protected void filterBefore(final Fragment<Node> originalVisitedNodeFragment, final Fragment<Node> deAttachedVisitedNodeFragment, final Writer writer, final ExecutionContext executionContext) {
+        final ExecutionContext pipelineExecutionContext = getPipelineExecutionContext(originalVisitedNodeFragment, executionContext);
+        if (isEventReplayable(pipelineExecutionContext)) {
+            final int pipelineMaxNodeDepth = getMaxNodeDepth() == Integer.MAX_VALUE ? 0 : getMaxNodeDepth() + 1;
+            final PipelineEventReplay pipelineEventReplay = new PipelineEventReplay(pipelineExecutionContext, originalVisitedNodeFragment, writer, executionContext.get(CACHED_DOCUMENT_BUILDER_TYPED_KEY), pipelineMaxNodeDepth);
+            executionContext.getMementoCaretaker().capture(new VisitorMemento<>(originalVisitedNodeFragment, this, PIPELINE_EVENT_REPLAY_MEMENTO_TYPED_KEY, pipelineEventReplay));
+            pipelineEventReplay.startElement((Element) deAttachedVisitedNodeFragment.unwrap());
+        } else {
+            filterSource(originalVisitedNodeFragment, deAttachedVisitedNodeFragment, writer, executionContext, VisitSequence.BEFORE);
+        }
+    }
+
+    /**
+     * Ends filtering the visited fragment with the pipeline.
+     *
+     * @return the root of the tree the pipeline filtered
+     */
+    protected Node filterAfter(final Fragment<Node> originalVisitedNodeFragment, final Fragment<Node> deAttachedVisitedNodeFragment, final Writer writer, final ExecutionContext executionContext) {
+        final VisitorMemento<PipelineEventReplay> pipelineEventReplayMemento = new VisitorMemento<>(originalVisitedNodeFragment, this, PIPELINE_EVENT_REPLAY_MEMENTO_TYPED_KEY);
+        final MementoCaretaker mementoCaretaker = executionContext.getMementoCaretaker();
+        if (mementoCaretaker.exists(pipelineEventReplayMemento)) {
+            mementoCaretaker.restore(pipelineEventReplayMemento);
+            final PipelineEventReplay pipelineEventReplay = pipelineEventReplayMemento.getState();
+            pipelineEventReplay.endElement((Element) deAttachedVisitedNodeFragment.unwrap());
+            pipelineEventReplay.close();
+            final Element rootElement = pipelineEventReplay.getRootElement();
+
+            return rootElement == null ? deAttachedVisitedNodeFragment.unwrap() : rootElement;
+        } else {
+            filterSource(originalVisitedNodeFragment, deAttachedVisitedNodeFragment, writer, executionContext, VisitSequence.AFTER);
+
+            return deAttachedVisitedNodeFragment.unwrap();
+        }
+    }
+
+    /**
+     * Events can be replayed into a SAX NG pipeline unless the pipeline has a reader of its own, which needs a source
+     * to parse.
+     */
+    protected boolean isEventReplayable(final ExecutionContext pipelineExecutionContext) {
+        final ContentDeliveryConfig contentDeliveryConfig = pipelineExecutionContext.getContentDeliveryRuntime().getContentDeliveryConfig();
+        return contentDeliveryConfig instanceof SaxNgContentDeliveryConfig && AbstractParser.getSAXParserConfiguration(contentDeliveryConfig) == null;
+    }
+
+    protected ExecutionContext getPipelineExecutionContext(final Fragment<Node> originalVisitedNodeFragment, final ExecutionContext executionContext) {
         final VisitorMemento<ExecutionContext> pipelineExecutionContextMemento;
         final MementoCaretaker mementoCaretaker = executionContext.getMementoCaretaker();
         if (mementoCaretaker.exists(new VisitorMemento<>(originalVisitedNodeFragment, this, PIPELINE_EXECUTION_CONTEXT_MEMENTO_TYPED_KEY))) {
             pipelineExecutionContextMemento = new VisitorMemento<>(originalVisitedNodeFragment, this, PIPELINE_EXECUTION_CONTEXT_MEMENTO_TYPED_KEY);
             mementoCaretaker.restore(pipelineExecutionContextMemento);
         } else {
-            final ExecutionContext pipelineExecutionContext = pipeline.createExecutionContext();
+            final Deque<ExecutionContext> pipelineExecutionContextPool = executionContext.get(pipelineExecutionContextPoolTypedKey);
+            final ExecutionContext pipelineExecutionContext = pipelineExecutionContextPool == null || pipelineExecutionContextPool.isEmpty() ? pipeline.createExecutionContext() : pipelineExecutionContextPool.pop();
             pipelineExecutionContext.setContentEncoding(executionContext.getContentEncoding());
             pipelineExecutionContext.setBeanContext(executionContext.getBeanContext());
             pipelineExecutionContext.put(DOMModel.DOM_MODEL_TYPED_KEY, DOMModel.getModel(executionContext));
@@ -403,12 +477,15 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
             mementoCaretaker.capture(pipelineExecutionContextMemento);
         }
 
-        final Document eventPointerDocument = executionContext.get(CACHED_DOCUMENT_BUILDER_TYPED_KEY).newDocument();
-        eventPointerDocument.setStrictErrorChecking(false);
-        EventPointer eventPointer = new EventPointer(eventPointerDocument, visitSequence);
-        eventPointerDocument.appendChild(eventPointer.getPointerNode());
+        return pipelineExecutionContextMemento.getState();
+    }
+
+    protected void filterSource(final Fragment<Node> originalVisitedNodeFragment, final Fragment<Node> deAttachedVisitedNodeFragment, final Writer writer, final ExecutionContext executionContext, final VisitSequence visitSequence) {
+        // the pipeline only reads the pointer document so one pointer per visit sequence is shared by every event
+        final EventPointer eventPointer = executionContext.get(CACHED_EVENT_POINTERS_TYPED_KEY).computeIfAbsent(visitSequence, sequence -> newEventPointer(sequence, executionContext));
+        final Document eventPointerDocument = eventPointer.getPointerNode().getOwnerDocument();
 
-        final ExecutionContext pipelineExecutionContext = pipelineExecutionContextMemento.getState();
+        final ExecutionContext pipelineExecutionContext = getPipelineExecutionContext(originalVisitedNodeFragment, executionContext);
         pipelineExecutionContext.put(eventPointer.getReference(), deAttachedVisitedNodeFragment.unwrap());
         if (writer == null) {
             pipeline.filterSource(pipelineExecutionContext, new DOMSource(eventPointerDocument));
@@ -417,6 +494,15 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
         }
     }
 
+    protected EventPointer newEventPointer(final VisitSequence visitSequence, final ExecutionContext executionContext) {
+        final Document eventPointerDocument = executionContext.get(CACHED_DOCUMENT_BUILDER_TYPED_KEY).newDocument();
+        eventPointerDocument.setStrictErrorChecking(false);
+        final EventPointer eventPointer = new EventPointer(eventPointerDocument, visitSequence);
+        eventPointerDocument.appendChild(eventPointer.getPointerNode());
+
+        return eventPointer;
+    }
+
     public int getMaxNodeDepth() {
         if (action != null && (action.equals(Action.PREPEND_BEFORE) || action.equals(Action.PREPEND_AFTER))) {
             return Integer.MAX_VALUE;
@@ -432,9 +518,37 @@ public class NestedSmooksVisitor implements BeforeVisitor, AfterVisitor, Consume
 
     @Override
     public void onPostFragment(Fragment<?> fragment, ExecutionContext executionContext) {
-        final VisitorMemento<ChildEventListener> childEventListenerMemento = new SimpleVisitorMemento<>(fragment, this, new ChildEventListener(this, null, null, null));
+        final VisitorMemento<ChildEventListener> childEventListenerMemento = new SimpleVisitorMemento<>(fragment, this, new ChildEventListener(this, null, null, null, null));
         executionContext.getMementoCaretaker().restore(childEventListenerMemento);
         executionContext.getContentDeliveryRuntime().removeExecutionEventListener(childEventListenerMemento.getState());
+
+        try {
+            // already closed unless filtering the fragment failed
+            final VisitorMemento<PipelineEventReplay> pipelineEventReplayMemento = new VisitorMemento<>(fragment, this, PIPELINE_EVENT_REPLAY_MEMENTO_TYPED_KEY);
+            final MementoCaretaker mementoCaretaker = executionContext.getMementoCaretaker();
+            if (mementoCaretaker.exists(pipelineEventReplayMemento)) {
+                mementoCaretaker.restore(pipelineEventReplayMemento);
+                mementoCaretaker.forget(pipelineEventReplayMemento);
+                pipelineEventReplayMemento.getState().close();
+            }
+        } finally {
+            releasePipelineExecutionContext(fragment, executionContext);
+        }
+    }
+
+    protected void releasePipelineExecutionContext(final Fragment<?> fragment, final ExecutionContext executionContext) {
+        final Deque<ExecutionContext> pipelineExecutionContextPool = executionContext.get(pipelineExecutionContextPoolTypedKey);
+        final VisitorMemento<ExecutionContext> pipelineExecutionContextMemento = new VisitorMemento<>(fragment, this, PIPELINE_EXECUTION_CONTEXT_MEMENTO_TYPED_KEY);
+        final MementoCaretaker mementoCaretaker = executionContext.getMementoCaretaker();
+        if (pipelineExecutionContextPool != null && mementoCaretaker.exists(pipelineExecutionContextMemento)) {
+            mementoCaretaker.restore(pipelineExecutionContextMemento);
+            mementoCaretaker.forget(pipelineExecutionContextMemento);
+            final ExecutionContext pipelineExecutionContext = pipelineExecutionContextMemento.getState();
+            if (pipelineExecutionContext instanceof DefaultExecutionContext) {
+                ((DefaultExecutionContext) pipelineExecutionContext).reset();
+                pipelineExecutionContextPool.push(pipelineExecutionContext);
+            }
+        }
     }
 
     public void setMaxNodeDepth(Integer maxNodeDepth) {
@@ -0,0 +1,214 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.resource.visitor.smooks;
+
+import org.smooks.api.ExecutionContext;
+import org.smooks.api.SmooksException;
+import org.smooks.api.bean.lifecycle.BeanContextLifecycleObserver;
+import org.smooks.api.delivery.ContentDeliveryConfig;
+import org.smooks.api.delivery.fragment.Fragment;
+import org.smooks.api.io.Sink;
+import org.smooks.engine.delivery.fragment.NodeFragment;
+import org.smooks.engine.delivery.replay.EndElementEvent;
+import org.smooks.engine.delivery.replay.StartElementEvent;
+import org.smooks.engine.delivery.sax.ng.SaxNgContentHandler;
+import org.smooks.engine.delivery.sax.ng.terminate.TerminateException;
+import org.smooks.namespace.NamespaceDeclarationStack;
+import org.smooks.engine.xml.NamespaceManager;
+import org.smooks.io.NullWriter;
+import org.smooks.io.Stream;
+import org.smooks.io.sink.WriterSink;
+import org.w3c.dom.Attr;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+
+/**
+ * Replays the events of a fragment visited by a {@link NestedSmooksVisitor} into the SAX NG content handler of the
+ * visitor's pipeline. The pipeline builds its own tree from the events, rooted at the visited element, so the
+ * fragment is neither copied nor filtered once per event. One replay spans the fragment: it starts with the visited
+ * element's start event and is closed after the visited element's end event.
+ */
+class PipelineEventReplay {
+
+    private final ExecutionContext pipelineExecutionContext;
+    private final ContentDeliveryConfig contentDeliveryConfig;
+    private final Writer writer;
+    private final SaxNgContentHandler contentHandler;
+    private final StartElementEvent startElementEvent = new StartElementEvent();
+    private final EndElementEvent endElementEvent = new EndElementEvent();
+    private final AttributesImpl attributes = new AttributesImpl();
+    private boolean terminated;
+    private boolean closed;
+
+    /**
+     * @param pipelineExecutionContext the pipeline's execution context
+     * @param visitedFragment          the fragment whose events are replayed
+     * @param writer                   the writer the pipeline writes to or <code>null</code> to discard the output
+     * @param documentBuilder          the builder of the pipeline's document
+     * @param maxNodeDepth             depth, counting the visited element as 1, from which the pipeline removes nodes
+     *                                 once they have been processed. 0 keeps every node.
+     */
+    PipelineEventReplay(final ExecutionContext pipelineExecutionContext, final Fragment<Node> visitedFragment, final Writer writer, final DocumentBuilder documentBuilder, final int maxNodeDepth) {
+        this.pipelineExecutionContext = pipelineExecutionContext;
+        this.writer = writer == null ? new NullWriter() : writer;
+        contentDeliveryConfig = pipelineExecutionContext.getContentDeliveryRuntime().getContentDeliveryConfig();
+
+        if (writer == null) {
+            pipelineExecutionContext.remove(Sink.SINKS_TYPED_KEY);
+        } else {
+            pipelineExecutionContext.put(Sink.SINKS_TYPED_KEY, Collections.singletonList(new WriterSink<>(writer)));
+        }
+        pipelineExecutionContext.put(Stream.STREAM_WRITER_TYPED_KEY, this.writer);
+        pipelineExecutionContext.put(NamespaceManager.NAMESPACE_DECLARATION_STACK_TYPED_KEY, new NamespaceDeclarationStack());
+        for (BeanContextLifecycleObserver beanContextLifecycleObserver : pipelineExecutionContext.getApplicationContext().getBeanContextLifecycleObservers()) {
+            pipelineExecutionContext.getBeanContext().addObserver(beanContextLifecycleObserver);
+        }
+        replay(() -> contentDeliveryConfig.executeHandlerInit(pipelineExecutionContext));
+
+        contentHandler = new SaxNgContentHandler(pipelineExecutionContext, documentBuilder, null, maxNodeDepth) {
+            @Override
+            protected NodeFragment newNodeFragment(final Element element) {
+                if (element.getParentNode() == getDocument()) {
+                    // the pipeline's root stands in for the visited element so, like a copy of it, it has the element's ID and reservations
+                    element.setUserData(NodeFragment.RESERVATIONS_USER_DATA_KEY, visitedFragment.unwrap().getUserData(NodeFragment.RESERVATIONS_USER_DATA_KEY), null);
+                    return new NodeFragment(element, false, visitedFragment.getLongId());
+                }
+                return super.newNodeFragment(element);
+            }
+        };
+        contentHandler.startDocument();
+    }
+
+    public void startElement(final Element element) {
+        final NamedNodeMap elementAttributes = element.getAttributes();
+        attributes.clear();
+        for (int i = 0; i < elementAttributes.getLength(); i++) {
+            final Attr attr = (Attr) elementAttributes.item(i);
+            attributes.addAttribute(getNamespaceURI(attr), getLocalName(attr), attr.getName(), "CDATA", attr.getValue());
+        }
+        startElementEvent.set(getNamespaceURI(element), getLocalName(element), element.getNodeName(), attributes);
+        replay(() -> startElementEvent.replay(contentHandler));
+    }
+
+    public void characters(final CharacterData characterData) {
+        final char[] chars = characterData.getData().toCharArray();
+        replay(() -> {
+            if (characterData.getNodeType() == Node.COMMENT_NODE) {
+                contentHandler.comment(chars, 0, chars.length);
+            } else if (characterData.getNodeType() == Node.CDATA_SECTION_NODE) {
+                contentHandler.startCDATA();
+                contentHandler.characters(chars, 0, chars.length);
+                contentHandler.endCDATA();
+            } else {
+                contentHandler.characters(chars, 0, chars.length);
+            }
+        });
+    }
+
+    public void endElement(final Element element) {
+        endElementEvent.set(getNamespaceURI(element), getLocalName(element), element.getNodeName());
+        replay(() -> endElementEvent.replay(contentHandler));
+    }
+
+    /**
+     * Ends the pipeline's execution for the fragment. Closing the replay more than once has no effect.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new SmooksException("Failed to filter source", e);
+        } finally {
+            contentHandler.close();
+            contentHandler.detachHandler();
+            contentDeliveryConfig.executeHandlerCleanup(pipelineExecutionContext);
+        }
+    }
+
+    /**
+     * @return the root of the pipeline's tree or <code>null</code> if the pipeline did not build the visited element
+     */
+    public Element getRootElement() {
+        return contentHandler.getDocument().getDocumentElement();
+    }
+
+    /**
+     * Replays an event the way a pipeline filtering a source would see it: a terminate ends the pipeline's execution
+     * for the rest of the fragment, any other failure fails the filtering.
+     */
+    private void replay(final Runnable event) {
+        if (terminated) {
+            return;
+        }
+        try {
+            event.run();
+        } catch (TerminateException e) {
+            terminated = true;
+        } catch (RuntimeException e) {
+            final SmooksException smooksException = new SmooksException("Failed to filter source", e);
+            pipelineExecutionContext.setTerminationError(smooksException);
+            throw smooksException;
+        }
+    }
+
+    private static String getNamespaceURI(final Node node) {
+        return node.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : node.getNamespaceURI();
+    }
+
+    private static String getLocalName(final Node node) {
+        return node.getLocalName() == null ? node.getNodeName() : node.getLocalName();
+    }
+}
@@ -146,5 +146,9 @@ public abstract class DocType {
         public void setXmlns(String xmlns) {
             this.xmlns = xmlns;
         }
+
+        public boolean isOmit() {
+            return omit;
+        }
     }
 }
@@ -0,0 +1,208 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffering writer for {@link org.smooks.io.sink.StreamSink} output.
+ * <p/>
+ * Content handlers call {@link #flushOnFragmentEnd()} when a fragment ends. Whether that reaches the underlying
+ * writer and stream depends on the {@link FlushPolicy}. {@link #flush()} always writes out the buffer and flushes
+ * the underlying writer.
+ */
+public class BufferedSinkWriter extends Writer {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * When to flush the sink as fragments end.
+     */
+    public enum FlushPolicy {
+        /**
+         * Flush on every fragment end.
+         */
+        FRAGMENT,
+        /**
+         * Flush only once the whole document has been filtered.
+         */
+        DOCUMENT,
+        /**
+         * Flush on fragment end once a threshold of characters has been written since the last flush.
+         */
+        THRESHOLD,
+        /**
+         * Flush on fragment end once an interval has elapsed since the last flush.
+         */
+        INTERVAL
+    }
+
+    private final Writer delegateWriter;
+    private final FlushPolicy flushPolicy;
+    private final long flushThreshold;
+    private final long flushIntervalNanos;
+    private final char[] buffer;
+    private int count;
+    private long unflushedLength;
+    private long lastFlushNanos;
+
+    public BufferedSinkWriter(final Writer delegateWriter) {
+        this(delegateWriter, FlushPolicy.THRESHOLD, DEFAULT_BUFFER_SIZE, 0);
+    }
+
+    /**
+     * @param delegateWriter      the writer of the sink
+     * @param flushPolicy         when to flush on fragment end
+     * @param flushThreshold      number of characters written after which {@link FlushPolicy#THRESHOLD} flushes
+     * @param flushIntervalMillis number of milliseconds after which {@link FlushPolicy#INTERVAL} flushes
+     */
+    public BufferedSinkWriter(final Writer delegateWriter, final FlushPolicy flushPolicy, final long flushThreshold, final long flushIntervalMillis) {
+        this.delegateWriter = delegateWriter;
+        this.flushPolicy = flushPolicy;
+        this.flushThreshold = flushThreshold;
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000L;
+        this.buffer = new char[DEFAULT_BUFFER_SIZE];
+        if (flushPolicy == FlushPolicy.INTERVAL) {
+            lastFlushNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (char) c;
+        unflushedLength++;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len >= buffer.length) {
+            drain();
+            delegateWriter.write(cbuf, off, len);
+        } else {
+            if (len > buffer.length - count) {
+                drain();
+            }
+            System.arraycopy(cbuf, off, buffer, count, len);
+            count += len;
+        }
+        unflushedLength += len;
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        if (len >= buffer.length) {
+            drain();
+            delegateWriter.write(str, off, len);
+        } else {
+            if (len > buffer.length - count) {
+                drain();
+            }
+            str.getChars(off, off + len, buffer, count);
+            count += len;
+        }
+        unflushedLength += len;
+    }
+
+    /**
+     * Flushes the sink if the {@link FlushPolicy} requires it.
+     *
+     * @throws IOException if flushing the sink fails
+     */
+    public void flushOnFragmentEnd() throws IOException {
+        switch (flushPolicy) {
+            case FRAGMENT:
+                flush();
+                break;
+            case THRESHOLD:
+                if (unflushedLength >= flushThreshold) {
+                    flush();
+                }
+                break;
+            case INTERVAL:
+                if (System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+                    flush();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        delegateWriter.flush();
+        unflushedLength = 0;
+        if (flushPolicy == FlushPolicy.INTERVAL) {
+            lastFlushNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            delegateWriter.close();
+        }
+    }
+
+    public Writer getDelegateWriter() {
+        return delegateWriter;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            delegateWriter.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
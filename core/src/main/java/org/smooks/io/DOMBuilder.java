@@ -0,0 +1,150 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io;
+
+import org.smooks.api.SmooksException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * SAX handler which builds a namespace aware W3C {@link Document} from the events it receives.
+ * <p/>
+ * Paired with a {@link SAXWriter}, it turns serialized output into a DOM without buffering the output as a string.
+ */
+public class DOMBuilder extends DefaultHandler2 {
+
+    private final Document document;
+    private Node currentNode;
+    private boolean inCDATA;
+
+    public DOMBuilder() {
+        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        try {
+            document = documentBuilderFactory.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new SmooksException(e);
+        }
+        currentNode = document;
+    }
+
+    public DOMBuilder(final Document document) {
+        this.document = document;
+        currentNode = document;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+        final Element element = document.createElementNS(uri.isEmpty() ? null : uri, qName);
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final String attributeURI = attributes.getURI(i);
+            element.setAttributeNS(attributeURI.isEmpty() ? null : attributeURI, attributes.getQName(i), attributes.getValue(i));
+        }
+        currentNode.appendChild(element);
+        currentNode = element;
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) {
+        currentNode = currentNode.getParentNode();
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) {
+        if (currentNode == document) {
+            // whitespace outside the document element is not part of the DOM
+            return;
+        }
+        if (inCDATA) {
+            currentNode.appendChild(document.createCDATASection(new String(ch, start, length)));
+        } else {
+            final Node lastChild = currentNode.getLastChild();
+            if (lastChild != null && lastChild.getNodeType() == Node.TEXT_NODE) {
+                ((Text) lastChild).appendData(new String(ch, start, length));
+            } else {
+                currentNode.appendChild(document.createTextNode(new String(ch, start, length)));
+            }
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length) {
+        characters(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(final String target, final String data) {
+        currentNode.appendChild(document.createProcessingInstruction(target, data));
+    }
+
+    @Override
+    public void comment(final char[] ch, final int start, final int length) {
+        currentNode.appendChild(document.createComment(new String(ch, start, length)));
+    }
+
+    @Override
+    public void startCDATA() {
+        inCDATA = true;
+    }
+
+    @Override
+    public void endCDATA() {
+        inCDATA = false;
+    }
+
+    @Override
+    public void startDTD(final String name, final String publicId, final String systemId) {
+        throw new SmooksException(String.format("DOCTYPE '%s' is not allowed in DOM result", name));
+    }
+}
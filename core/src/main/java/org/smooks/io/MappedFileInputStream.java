@@ -0,0 +1,227 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link InputStream} reading a file through memory-mapped windows of its {@link FileChannel}.
+ * <p/>
+ * Bytes are copied straight from the page cache into the caller's buffer, skipping the intermediate buffer of a
+ * {@link java.io.FileInputStream}. Files larger than a single window are mapped one window at a time, so files beyond
+ * 2GB can be read. A window is unmapped as soon as the stream moves past it or is closed rather than when the GC gets
+ * round to it, which keeps address space in check and releases the file lock Windows holds on mapped files. The stream
+ * is not thread-safe: it must not be closed while another thread reads from it.
+ */
+public class MappedFileInputStream extends InputStream {
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 24;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileInputStream.class);
+    private static final Unmapper UNMAPPER = newUnmapper();
+
+    private final FileChannel fileChannel;
+    private final long size;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowPosition;
+    private long mark;
+
+    public MappedFileInputStream(final Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileInputStream(final Path path, final int windowSize) throws IOException {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+        this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = fileChannel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        final int count = Math.min(len, window.remaining());
+        window.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final long position = getPosition();
+        final long skipped = Math.min(n, size - position);
+        seek(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, size - getPosition());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        mark = getPosition();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        seek(mark);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            unmapWindow();
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+    private long getPosition() {
+        return window == null ? windowPosition : windowPosition + window.position();
+    }
+
+    private void seek(final long position) {
+        if (window != null && position >= windowPosition && position <= windowPosition + window.limit()) {
+            window.position((int) (position - windowPosition));
+        } else {
+            unmapWindow();
+            windowPosition = position;
+        }
+    }
+
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        final long position = getPosition();
+        if (position >= size) {
+            return false;
+        }
+        if (!fileChannel.isOpen()) {
+            throw new IOException("Stream closed");
+        }
+        unmapWindow();
+        windowPosition = position;
+        window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+        return true;
+    }
+
+    private void unmapWindow() {
+        final MappedByteBuffer unmappedWindow = window;
+        if (unmappedWindow != null) {
+            window = null;
+            try {
+                UNMAPPER.unmap(unmappedWindow);
+            } catch (Throwable t) {
+                LOGGER.debug("Failed to unmap file window. Leaving it to the GC", t);
+            }
+        }
+    }
+
+    private static Unmapper newUnmapper() {
+        try {
+            // Java 9+
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return byteBuffer -> invokeCleaner.invoke(unsafe, byteBuffer);
+        } catch (Throwable t) {
+            LOGGER.trace("Unsafe.invokeCleaner(ByteBuffer) not available", t);
+        }
+        try {
+            // Java 8
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return byteBuffer -> clean.invoke(cleaner.invoke(byteBuffer));
+        } catch (Throwable t) {
+            LOGGER.debug("Unable to unmap file windows explicitly. Leaving them to the GC", t);
+            return byteBuffer -> {
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Unmapper {
+        void unmap(ByteBuffer byteBuffer) throws Exception;
+    }
+}
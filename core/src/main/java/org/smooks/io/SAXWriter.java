@@ -45,23 +45,40 @@ package org.smooks.io;
 import com.fasterxml.aalto.AsyncByteArrayFeeder;
 import com.fasterxml.aalto.AsyncXMLStreamReader;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
+import org.codehaus.stax2.DTDInfo;
 import org.smooks.api.SmooksException;
+import org.smooks.engine.xml.DocType;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.ext.LexicalHandler;
 import org.xml.sax.helpers.AttributesImpl;
 
 import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 import static javax.xml.XMLConstants.DEFAULT_NS_PREFIX;
 
+/**
+ * {@link Writer} which parses the XML written to it as it arrives and dispatches the parsed events to a
+ * {@link ContentHandler}.
+ * <p/>
+ * The characters written are encoded into a reused buffer by a single {@link CharsetEncoder}, which carries a
+ * surrogate pair split across two writes over to the next write, and fed to a non-blocking parser.
+ */
 public class SAXWriter extends Writer {
     protected static final InputFactoryImpl ASYNC_XML_INPUT_FACTORY;
+    protected static final int BUFFER_SIZE = 8192;
 
     protected final ContentHandler contentHandler;
     protected final AsyncXMLStreamReader<AsyncByteArrayFeeder> asyncXMLStreamReader;
@@ -73,81 +90,186 @@ public class SAXWriter extends Writer {
     }
 
     protected final Charset charset;
+    protected final CharsetEncoder charsetEncoder;
+    protected final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final char[] surrogatePair = new char[2];
+    private boolean hasPendingHighSurrogate;
 
     public SAXWriter(ContentHandler contentHandler, Charset charset) {
         this.contentHandler = contentHandler;
         this.charset = charset;
+        charsetEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
         lexicalHandler = contentHandler instanceof LexicalHandler ? (LexicalHandler) contentHandler : null;
         asyncXMLStreamReader = ASYNC_XML_INPUT_FACTORY.createAsyncForByteArray();
     }
 
     @Override
     public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
         try {
-            byte[] inputBytes = new String(cbuf, off, len).getBytes(charset);
-            asyncXMLStreamReader.getInputFeeder().feedInput(inputBytes, 0, inputBytes.length);
-            while (true) {
-                int event = asyncXMLStreamReader.next();
-                if (AsyncXMLStreamReader.EVENT_INCOMPLETE == event) {
+            int start = off;
+            if (hasPendingHighSurrogate) {
+                hasPendingHighSurrogate = false;
+                surrogatePair[1] = cbuf[off];
+                encode(CharBuffer.wrap(surrogatePair), false);
+                start++;
+            }
+            if (start < off + len) {
+                encode(CharBuffer.wrap(cbuf, start, off + len - start), false);
+            }
+        } catch (SAXException | XMLStreamException e) {
+            throw new SmooksException(e);
+        }
+    }
+
+    /**
+     * Signals that no more input will be written and dispatches any events still pending, such as the end of the
+     * document.
+     */
+    public void endOfInput() {
+        try {
+            if (hasPendingHighSurrogate) {
+                hasPendingHighSurrogate = false;
+                encode(CharBuffer.wrap(surrogatePair, 0, 1), true);
+            } else {
+                encode(CharBuffer.allocate(0), true);
+            }
+            charsetEncoder.flush(byteBuffer);
+            feed();
+            asyncXMLStreamReader.getInputFeeder().endOfInput();
+            processEvents();
+        } catch (SAXException | XMLStreamException | CharacterCodingException e) {
+            throw new SmooksException(e);
+        }
+    }
+
+    protected void encode(final CharBuffer charBuffer, final boolean endOfInput) throws XMLStreamException, SAXException, CharacterCodingException {
+        CoderResult coderResult;
+        do {
+            coderResult = charsetEncoder.encode(charBuffer, byteBuffer, endOfInput);
+            if (coderResult.isError()) {
+                coderResult.throwException();
+            }
+            feed();
+        } while (coderResult.isOverflow());
+
+        if (charBuffer.hasRemaining()) {
+            // high surrogate whose low surrogate has yet to be written
+            surrogatePair[0] = charBuffer.get();
+            hasPendingHighSurrogate = true;
+        }
+    }
+
+    protected void feed() throws XMLStreamException, SAXException {
+        if (byteBuffer.position() > 0) {
+            asyncXMLStreamReader.getInputFeeder().feedInput(byteBuffer.array(), 0, byteBuffer.position());
+            processEvents();
+            byteBuffer.clear();
+        }
+    }
+
+    /**
+     * Dispatches a document type declaration straight to the lexical handler rather than parsing it from text.
+     *
+     * @param docTypeData the document type declaration
+     */
+    public void writeDocType(final DocType.DocumentTypeData docTypeData) {
+        if (lexicalHandler != null && !docTypeData.isOmit()) {
+            try {
+                lexicalHandler.startDTD(docTypeData.getName(), docTypeData.getPublicId(), docTypeData.getSystemId());
+                lexicalHandler.endDTD();
+            } catch (SAXException e) {
+                throw new SmooksException(e);
+            }
+        }
+    }
+
+    public ContentHandler getContentHandler() {
+        return contentHandler;
+    }
+
+    protected void processEvents() throws XMLStreamException, SAXException {
+        while (asyncXMLStreamReader.hasNext()) {
+            int event = asyncXMLStreamReader.next();
+            if (AsyncXMLStreamReader.EVENT_INCOMPLETE == event) {
+                break;
+            }
+            switch (event) {
+                case XMLStreamConstants.START_DOCUMENT:
+                    contentHandler.startDocument();
                     break;
-                }
-                switch (event) {
-                    case XMLStreamConstants.START_DOCUMENT:
-                        contentHandler.startDocument();
-                        break;
-                    case XMLStreamConstants.START_ELEMENT:
-                        for (int i = 0; i < asyncXMLStreamReader.getNamespaceCount(); i++) {
-                            contentHandler.startPrefixMapping(asyncXMLStreamReader.getNamespacePrefix(i), asyncXMLStreamReader.getNamespaceURI(i));
-                        }
-                        final AttributesImpl saxAttributes = new AttributesImpl();
-                        for (int i = 0, n = asyncXMLStreamReader.getAttributeCount(); i < n; ++i) {
-                            saxAttributes.addAttribute(asyncXMLStreamReader.getAttributeName(i).getNamespaceURI(), asyncXMLStreamReader.getAttributeName(i).getLocalPart(), asyncXMLStreamReader.getAttributeName(i).getPrefix() + ":" + asyncXMLStreamReader.getAttributeName(i).getLocalPart(), asyncXMLStreamReader.getAttributeType(i), asyncXMLStreamReader.getAttributeValue(i));
-                        }
-                        for (int i = 0, n = asyncXMLStreamReader.getNamespaceCount(); i < n; ++i) {
-                            String namespacePrefix = asyncXMLStreamReader.getNamespacePrefix(i);
-                            if (namespacePrefix.equals(DEFAULT_NS_PREFIX)) {
-                                saxAttributes.addAttribute(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespacePrefix, XMLConstants.XMLNS_ATTRIBUTE, "CDATA", asyncXMLStreamReader.getNamespaceURI(i));
-                            } else {
-                                saxAttributes.addAttribute(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespacePrefix, XMLConstants.XMLNS_ATTRIBUTE + ":" + namespacePrefix, "CDATA", asyncXMLStreamReader.getNamespaceURI(i));
-                            }
-                        }
-                        if (asyncXMLStreamReader.getName().getNamespaceURI().equals(XMLConstants.NULL_NS_URI)) {
-                            contentHandler.startElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), asyncXMLStreamReader.getName().getLocalPart(), saxAttributes);
+                case XMLStreamConstants.START_ELEMENT:
+                    for (int i = 0; i < asyncXMLStreamReader.getNamespaceCount(); i++) {
+                        contentHandler.startPrefixMapping(asyncXMLStreamReader.getNamespacePrefix(i), asyncXMLStreamReader.getNamespaceURI(i));
+                    }
+                    final AttributesImpl saxAttributes = new AttributesImpl();
+                    for (int i = 0, n = asyncXMLStreamReader.getAttributeCount(); i < n; ++i) {
+                        final QName attributeName = asyncXMLStreamReader.getAttributeName(i);
+                        saxAttributes.addAttribute(attributeName.getNamespaceURI(), attributeName.getLocalPart(), toQName(attributeName), asyncXMLStreamReader.getAttributeType(i), asyncXMLStreamReader.getAttributeValue(i));
+                    }
+                    for (int i = 0, n = asyncXMLStreamReader.getNamespaceCount(); i < n; ++i) {
+                        String namespacePrefix = asyncXMLStreamReader.getNamespacePrefix(i);
+                        if (namespacePrefix.equals(DEFAULT_NS_PREFIX)) {
+                            saxAttributes.addAttribute(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespacePrefix, XMLConstants.XMLNS_ATTRIBUTE, "CDATA", asyncXMLStreamReader.getNamespaceURI(i));
                         } else {
-                            contentHandler.startElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), asyncXMLStreamReader.getName().getPrefix() + ":" + asyncXMLStreamReader.getName().getLocalPart(), saxAttributes);
+                            saxAttributes.addAttribute(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespacePrefix, XMLConstants.XMLNS_ATTRIBUTE + ":" + namespacePrefix, "CDATA", asyncXMLStreamReader.getNamespaceURI(i));
                         }
-                        break;
-                    case XMLStreamConstants.CHARACTERS:
-                        contentHandler.characters(asyncXMLStreamReader.getText().toCharArray(), asyncXMLStreamReader.getTextStart(), asyncXMLStreamReader.getTextLength());
-                        break;
-                    case XMLStreamConstants.CDATA:
-                        if (lexicalHandler != null) {
-                            lexicalHandler.startCDATA();
-                        }
-                        contentHandler.characters(asyncXMLStreamReader.getText().toCharArray(), asyncXMLStreamReader.getTextStart(), asyncXMLStreamReader.getTextLength());
-                        if (lexicalHandler != null) {
-                            lexicalHandler.endCDATA();
-                        }
-                        break;
-                    case XMLStreamConstants.END_ELEMENT:
-                        if (asyncXMLStreamReader.getName().getNamespaceURI().equals(XMLConstants.NULL_NS_URI)) {
-                            contentHandler.endElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), asyncXMLStreamReader.getName().getLocalPart());
-                        } else {
-                            contentHandler.endElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), asyncXMLStreamReader.getName().getPrefix() + ":" + asyncXMLStreamReader.getName().getLocalPart());
-                        }
-                        for (int i = 0; i < asyncXMLStreamReader.getNamespaceCount(); i++) {
-                            contentHandler.endPrefixMapping(asyncXMLStreamReader.getNamespacePrefix(i));
-                        }
-                        break;
-                    case XMLStreamConstants.END_DOCUMENT:
-                        contentHandler.endDocument();
-                        break;
-                    default:
-                        throw new UnsupportedOperationException();
-                }
+                    }
+                    contentHandler.startElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), toQName(asyncXMLStreamReader.getName()), saxAttributes);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                    contentHandler.characters(asyncXMLStreamReader.getTextCharacters(), asyncXMLStreamReader.getTextStart(), asyncXMLStreamReader.getTextLength());
+                    break;
+                case XMLStreamConstants.SPACE:
+                    contentHandler.ignorableWhitespace(asyncXMLStreamReader.getTextCharacters(), asyncXMLStreamReader.getTextStart(), asyncXMLStreamReader.getTextLength());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    if (lexicalHandler != null) {
+                        final String comment = asyncXMLStreamReader.getText();
+                        lexicalHandler.comment(comment.toCharArray(), 0, comment.length());
+                    }
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    contentHandler.processingInstruction(asyncXMLStreamReader.getPITarget(), asyncXMLStreamReader.getPIData());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    if (lexicalHandler != null) {
+                        lexicalHandler.startCDATA();
+                    }
+                    contentHandler.characters(asyncXMLStreamReader.getTextCharacters(), asyncXMLStreamReader.getTextStart(), asyncXMLStreamReader.getTextLength());
+                    if (lexicalHandler != null) {
+                        lexicalHandler.endCDATA();
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    contentHandler.endElement(asyncXMLStreamReader.getName().getNamespaceURI(), asyncXMLStreamReader.getName().getLocalPart(), toQName(asyncXMLStreamReader.getName()));
+                    for (int i = 0; i < asyncXMLStreamReader.getNamespaceCount(); i++) {
+                        contentHandler.endPrefixMapping(asyncXMLStreamReader.getNamespacePrefix(i));
+                    }
+                    break;
+                case XMLStreamConstants.DTD:
+                    if (lexicalHandler != null) {
+                        final DTDInfo dtdInfo = asyncXMLStreamReader.getDTDInfo();
+                        lexicalHandler.startDTD(dtdInfo.getDTDRootName(), dtdInfo.getDTDPublicId(), dtdInfo.getDTDSystemId());
+                        lexicalHandler.endDTD();
+                    }
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    contentHandler.endDocument();
+                    break;
+                default:
+                    throw new SmooksException(String.format("Unsupported XML event type [%s] in written output", event));
             }
-        } catch (SAXException | XMLStreamException e) {
-            throw new SmooksException(e);
+        }
+    }
+
+    protected String toQName(final QName name) {
+        if (name.getPrefix().equals(DEFAULT_NS_PREFIX)) {
+            return name.getLocalPart();
+        } else {
+            return name.getPrefix() + ":" + name.getLocalPart();
         }
     }
 
@@ -0,0 +1,70 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io.source;
+
+import org.smooks.io.MappedFileInputStream;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Source reading a local file through a memory-mapped {@link java.nio.channels.FileChannel}.
+ * <p/>
+ * XML parsers are handed the raw bytes of the file, without an intermediate {@link java.io.Reader}, so the parser
+ * detects the document encoding from its BOM or XML declaration instead of the execution context's content encoding.
+ * Readers implementing {@link org.smooks.api.resource.reader.SmooksXMLReader} still get a character stream decoded
+ * with the content encoding.
+ */
+public class PathSource extends StreamSource<MappedFileInputStream> {
+
+    private final Path path;
+
+    public PathSource(Path path) throws IOException {
+        super(new MappedFileInputStream(path));
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
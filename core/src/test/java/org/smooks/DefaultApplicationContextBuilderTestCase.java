@@ -43,8 +43,12 @@
 package org.smooks;
 
 import org.junit.jupiter.api.Test;
+import org.smooks.api.ApplicationContext;
 import org.smooks.api.SmooksException;
+import org.smooks.api.delivery.Filter;
 import org.smooks.engine.DefaultApplicationContextBuilder;
+import org.smooks.engine.DefaultFilterSettings;
+import org.smooks.engine.lookup.GlobalParamsLookup;
 
 import java.net.URL;
 import java.util.Enumeration;
@@ -80,4 +84,13 @@ public class DefaultApplicationContextBuilderTestCase {
     public void testBuild() {
         assertNotNull(new DefaultApplicationContextBuilder().build());
     }
+
+    @Test
+    public void testBuildAppliesMaintainElementStack() {
+        ApplicationContext defaultApplicationContext = new DefaultApplicationContextBuilder().build();
+        assertEquals("true", defaultApplicationContext.getRegistry().lookup(new GlobalParamsLookup()).getParameterValue(Filter.MAINTAIN_ELEMENT_STACK));
+
+        ApplicationContext applicationContext = new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setMaintainElementStack(false)).build();
+        assertEquals("false", applicationContext.getRegistry().lookup(new GlobalParamsLookup()).getParameterValue(Filter.MAINTAIN_ELEMENT_STACK));
+    }
 }
@@ -48,6 +48,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.smooks.api.ExecutionContext;
 import org.smooks.api.SmooksException;
+import org.smooks.api.delivery.ContentDeliveryConfig;
 import org.smooks.api.resource.visitor.dom.DOMVisitAfter;
 import org.smooks.api.resource.visitor.dom.DOMVisitBefore;
 import org.smooks.api.resource.visitor.sax.ng.AfterVisitor;
@@ -74,6 +75,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -137,6 +139,21 @@ public class SmooksTestCase {
         assertEquals(1, visitor2.callCount);
     }
 
+	@Test
+    public void testBuildContentDeliveryConfig() {
+        Smooks smooks = new Smooks();
+        TestSAXVisitorBefore visitor = new TestSAXVisitorBefore();
+        smooks.addVisitor(visitor, "c");
+
+        ContentDeliveryConfig contentDeliveryConfig = smooks.buildContentDeliveryConfig();
+        assertThrows(UnsupportedOperationException.class, () -> smooks.addVisitor(new TestSAXVisitorAfter(), "c"));
+
+        ExecutionContext executionContext = smooks.createExecutionContext();
+        assertSame(contentDeliveryConfig, executionContext.getContentDeliveryRuntime().getContentDeliveryConfig());
+        smooks.filterSource(executionContext, new StringSource("<a><c/><c/></a>"));
+        assertEquals(2, visitor.callCount);
+    }
+
 	@Test
     public void testSetResourceLocator() throws IOException, SAXException {
         Smooks smooks = new Smooks("classpath:/org/smooks/test_setClassLoader_01.xml");
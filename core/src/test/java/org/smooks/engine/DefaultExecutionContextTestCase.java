@@ -47,10 +47,20 @@ import org.junit.jupiter.api.Test;
 import org.smooks.Smooks;
 import org.smooks.support.SmooksUtil;
 import org.smooks.api.TypedKey;
+import org.smooks.api.bean.context.BeanContext;
+import org.smooks.engine.delivery.fragment.NodeFragment;
+import org.smooks.engine.memento.SimpleVisitorMemento;
 import org.smooks.engine.profile.DefaultProfileSet;
+import org.smooks.engine.resource.visitor.SimpleSerializerVisitor;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -74,6 +84,26 @@ public class DefaultExecutionContextTestCase {
         assertTrue(attributes.containsValue(value));
     }
 
+    @Test
+    public void testReset() throws ParserConfigurationException {
+        final TypedKey<String> key = TypedKey.of();
+        final NodeFragment nodeFragment = new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument());
+        final SimpleSerializerVisitor visitor = new SimpleSerializerVisitor();
+        context.put(key, "testValue");
+        context.getMementoCaretaker().capture(new SimpleVisitorMemento<>(nodeFragment, visitor, "Hello World!"));
+        context.setContentEncoding("ISO-8859-1");
+        context.setTerminationError(new Exception());
+        final BeanContext beanContext = context.getBeanContext();
+
+        context.reset();
+
+        assertTrue(context.getAll().isEmpty());
+        assertFalse(context.getMementoCaretaker().exists(new SimpleVisitorMemento<>(nodeFragment, visitor, "")));
+        assertEquals("UTF-8", context.getContentEncoding());
+        assertNull(context.getTerminationError());
+        assertNotSame(beanContext, context.getBeanContext());
+    }
+
     @BeforeEach
     public void setup() {
         Smooks smooks = new Smooks();
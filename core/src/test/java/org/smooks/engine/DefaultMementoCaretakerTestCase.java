@@ -45,12 +45,16 @@ package org.smooks.engine;
 import org.junit.jupiter.api.Test;
 import org.smooks.api.TypedKey;
 import org.smooks.api.TypedMap;
+import org.smooks.api.delivery.fragment.Fragment;
+import org.smooks.api.memento.Memento;
 import org.smooks.api.memento.MementoCaretaker;
 import org.smooks.api.resource.visitor.Visitor;
 import org.smooks.engine.delivery.fragment.NodeFragment;
 import org.smooks.engine.memento.DefaultMementoCaretaker;
 import org.smooks.engine.memento.SimpleVisitorMemento;
+import org.smooks.engine.memento.TextAccumulatorMemento;
 import org.smooks.engine.memento.VisitorMemento;
+import org.w3c.dom.Document;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -58,42 +62,141 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DefaultMementoCaretakerTestCase {
 
     @Test
     public void testRestore() throws ParserConfigurationException {
         Map<Object, Object> typedMap = new HashMap<>();
-        MementoCaretaker mementoCaretaker = new DefaultMementoCaretaker(new TypedMap() {
+        MementoCaretaker mementoCaretaker = new DefaultMementoCaretaker(newTypedMap(typedMap));
+        VisitorMemento<String> visitorMemento = new SimpleVisitorMemento<>(new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()), new Visitor() {
+        }, "foo");
+        mementoCaretaker.restore(visitorMemento);
+        assertEquals("foo", visitorMemento.getState());
+        assertEquals(0, typedMap.size());
+    }
+
+    @Test
+    public void testCaptureAndRestoreSlottedMementos() throws ParserConfigurationException {
+        Map<Object, Object> typedMap = new HashMap<>();
+        MementoCaretaker mementoCaretaker = new DefaultMementoCaretaker(newTypedMap(typedMap));
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        NodeFragment fragment = new NodeFragment(document.appendChild(document.createElement("a")));
+        Visitor visitor = new Visitor() {
+        };
+        Visitor otherVisitor = new Visitor() {
+        };
+        TypedKey<String> typedKey = TypedKey.of();
+        TypedKey<String> otherTypedKey = TypedKey.of();
+
+        mementoCaretaker.capture(new VisitorMemento<>(fragment, visitor, typedKey, "foo"));
+        mementoCaretaker.capture(new VisitorMemento<>(fragment, visitor, otherTypedKey, "bar"));
+        mementoCaretaker.capture(new VisitorMemento<>(fragment, otherVisitor, typedKey, "baz"));
+        mementoCaretaker.capture(new TextAccumulatorMemento(fragment).accumulateText("qux"));
+        assertEquals(0, typedMap.size());
+
+        VisitorMemento<String> visitorMemento = new VisitorMemento<>(fragment, visitor, typedKey);
+        mementoCaretaker.restore(visitorMemento);
+        assertEquals("foo", visitorMemento.getState());
+
+        visitorMemento = new VisitorMemento<>(new NodeFragment(fragment.unwrap()), visitor, otherTypedKey);
+        mementoCaretaker.restore(visitorMemento);
+        assertEquals("bar", visitorMemento.getState());
+
+        visitorMemento = new VisitorMemento<>(fragment, otherVisitor, typedKey);
+        mementoCaretaker.restore(visitorMemento);
+        assertEquals("baz", visitorMemento.getState());
+
+        TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(fragment);
+        mementoCaretaker.restore(textAccumulatorMemento);
+        assertEquals("qux", textAccumulatorMemento.getText());
+
+        assertFalse(mementoCaretaker.exists(new SimpleVisitorMemento<>(fragment, visitor, "foo")));
+
+        mementoCaretaker.forget(new VisitorMemento<>(fragment, visitor, typedKey));
+        assertFalse(mementoCaretaker.exists(new VisitorMemento<>(fragment, visitor, typedKey)));
+        assertTrue(mementoCaretaker.exists(new VisitorMemento<>(fragment, visitor, otherTypedKey)));
+
+        mementoCaretaker.forget(fragment);
+        assertFalse(mementoCaretaker.exists(new VisitorMemento<>(fragment, visitor, otherTypedKey)));
+        assertFalse(mementoCaretaker.exists(new TextAccumulatorMemento(fragment)));
+    }
+
+    @Test
+    public void testCaptureAndRestoreAnchoredMemento() throws ParserConfigurationException {
+        Map<Object, Object> typedMap = new HashMap<>();
+        MementoCaretaker mementoCaretaker = new DefaultMementoCaretaker(newTypedMap(typedMap));
+        NodeFragment fragment = new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument());
+
+        mementoCaretaker.capture(new AnchoredMemento(fragment, "foo"));
+        assertEquals(1, typedMap.size());
+
+        AnchoredMemento anchoredMemento = new AnchoredMemento(fragment, null);
+        mementoCaretaker.restore(anchoredMemento);
+        assertEquals("foo", anchoredMemento.state);
+
+        mementoCaretaker.forget(fragment);
+        assertEquals(0, typedMap.size());
+    }
+
+    private TypedMap newTypedMap(Map<Object, Object> typedMap) {
+        return new TypedMap() {
             @Override
             public <T> void put(TypedKey<T> key, T value) {
                 typedMap.put(key, value);
             }
-
+    
             @Override
             public <T> T get(TypedKey<T> key) {
                 return (T) typedMap.get(key);
             }
-
+    
             @Override
             public <T> T getOrDefault(TypedKey<T> key, T value) {
                 return (T) typedMap.getOrDefault(key, value);
             }
-
+    
             @Override
             public Map<TypedKey<Object>, Object> getAll() {
                 return null;
             }
-
+    
             @Override
             public <T> void remove(TypedKey<T> key) {
                 typedMap.remove(key);
             }
-        });
-        VisitorMemento<String> visitorMemento = new SimpleVisitorMemento<>(new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()), new Visitor() {
-        }, "foo");
-        mementoCaretaker.restore(visitorMemento);
-        assertEquals("foo", visitorMemento.getState());
-        assertEquals(0, typedMap.size());
+        };
+    }
+
+    private static class AnchoredMemento implements Memento {
+        private final Fragment<?> fragment;
+        private String state;
+
+        private AnchoredMemento(Fragment<?> fragment, String state) {
+            this.fragment = fragment;
+            this.state = state;
+        }
+
+        @Override
+        public Memento copy() {
+            return new AnchoredMemento(fragment, state);
+        }
+
+        @Override
+        public void restore(Memento memento) {
+            state = ((AnchoredMemento) memento).state;
+        }
+
+        @Override
+        public Fragment<?> getFragment() {
+            return fragment;
+        }
+
+        @Override
+        public String getAnchor() {
+            return "anchored@" + fragment.getId();
+        }
     }
 }
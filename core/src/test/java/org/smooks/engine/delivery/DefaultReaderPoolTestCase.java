@@ -45,10 +45,13 @@ package org.smooks.engine.delivery;
 import org.junit.jupiter.api.Test;
 import org.smooks.api.delivery.ReaderPool;
 import org.smooks.engine.resource.reader.NullSourceXMLReader;
+import org.xml.sax.XMLReader;
 
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class DefaultReaderPoolTestCase {
 
@@ -96,4 +99,38 @@ public class DefaultReaderPoolTestCase {
         assertEquals("4", properties.get("unallocatedReaders"));
         assertEquals("1", properties.get("activeReaders"));
     }
+
+    @Test
+    public void testGetPropertiesCounters() {
+        ReaderPool readerPool = new DefaultReaderPool(1);
+        assertNull(readerPool.borrowXMLReader());
+        readerPool.returnXMLReader(new NullSourceXMLReader());
+        readerPool.borrowXMLReader();
+        readerPool.returnXMLReader(new NullSourceXMLReader());
+        readerPool.returnXMLReader(new NullSourceXMLReader());
+
+        Map<String, String> properties = readerPool.getProperties();
+        assertEquals("1", properties.get("hits"));
+        assertEquals("1", properties.get("misses"));
+        assertEquals("1", properties.get("allocations"));
+        assertEquals("1", properties.get("discards"));
+    }
+
+    @Test
+    public void testBorrowXMLReaderReturnsReaderLastReturnedByCurrentThread() throws InterruptedException {
+        Thread currentThread = Thread.currentThread();
+        ReaderPool readerPool = new DefaultReaderPool(8) {
+            @Override
+            protected int getHomeSlot(int length) {
+                return Thread.currentThread() == currentThread ? 5 : 0;
+            }
+        };
+        Thread thread = new Thread(() -> readerPool.returnXMLReader(new NullSourceXMLReader()));
+        thread.start();
+        thread.join();
+
+        XMLReader xmlReader = new NullSourceXMLReader();
+        readerPool.returnXMLReader(xmlReader);
+        assertSame(xmlReader, readerPool.borrowXMLReader());
+    }
 }
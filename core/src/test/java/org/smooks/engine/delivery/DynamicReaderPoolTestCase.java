@@ -45,10 +45,22 @@ package org.smooks.engine.delivery;
 import org.junit.jupiter.api.Test;
 import org.smooks.api.delivery.ReaderPool;
 import org.smooks.engine.resource.reader.NullSourceXMLReader;
+import org.xml.sax.XMLReader;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DynamicReaderPoolTestCase {
 
@@ -96,4 +108,107 @@ public class DynamicReaderPoolTestCase {
         assertEquals("15", properties.get("unallocatedReaders"));
         assertEquals("1", properties.get("activeReaders"));
     }
+
+    @Test
+    public void testReturnXMLReaderKeepsPooledReadersWhenPoolGrows() {
+        ReaderPool readerPool = new DynamicReaderPool(2, 8, -1);
+        List<XMLReader> xmlReaders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            XMLReader xmlReader = new NullSourceXMLReader();
+            xmlReaders.add(xmlReader);
+            readerPool.returnXMLReader(xmlReader);
+        }
+        assertEquals("8", readerPool.getProperties().get("readerPoolSize"));
+
+        Set<XMLReader> borrowedXMLReaders = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            XMLReader xmlReader = readerPool.borrowXMLReader();
+            assertNotNull(xmlReader);
+            borrowedXMLReaders.add(xmlReader);
+        }
+        assertEquals(new HashSet<>(xmlReaders), borrowedXMLReaders);
+        assertNull(readerPool.borrowXMLReader());
+    }
+
+    @Test
+    public void testReturnXMLReaderGivenFullPoolAtMaxSize() {
+        ReaderPool readerPool = new DynamicReaderPool(1, 2, -1);
+        for (int i = 0; i < 3; i++) {
+            readerPool.returnXMLReader(new NullSourceXMLReader());
+        }
+
+        assertEquals("2", readerPool.getProperties().get("readerPoolSize"));
+        assertNotNull(readerPool.borrowXMLReader());
+        assertNotNull(readerPool.borrowXMLReader());
+        assertNull(readerPool.borrowXMLReader());
+    }
+
+    @Test
+    public void testEvictIdleReaders() {
+        DynamicReaderPool readerPool = new DynamicReaderPool(4, 4, 1000);
+        readerPool.returnXMLReader(new NullSourceXMLReader());
+        readerPool.returnXMLReader(new NullSourceXMLReader());
+
+        readerPool.evictIdleReaders(System.currentTimeMillis());
+        assertEquals("0", readerPool.getProperties().get("evictedReaders"));
+
+        readerPool.evictIdleReaders(System.currentTimeMillis() + 2000);
+        assertEquals("2", readerPool.getProperties().get("evictedReaders"));
+        assertEquals("4", readerPool.getProperties().get("unallocatedReaders"));
+        assertNull(readerPool.borrowXMLReader());
+    }
+
+    @Test
+    public void testEvictIdleReadersAfterPoolGrows() {
+        DynamicReaderPool readerPool = new DynamicReaderPool(1, 4, 1000);
+        for (int i = 0; i < 3; i++) {
+            readerPool.returnXMLReader(new NullSourceXMLReader());
+        }
+        assertEquals("4", readerPool.getProperties().get("readerPoolSize"));
+
+        readerPool.evictIdleReaders(System.currentTimeMillis());
+        assertEquals("0", readerPool.getProperties().get("evictedReaders"));
+
+        readerPool.evictIdleReaders(System.currentTimeMillis() + 2000);
+        assertEquals("3", readerPool.getProperties().get("evictedReaders"));
+        assertNull(readerPool.borrowXMLReader());
+    }
+
+    @Test
+    public void testBorrowXMLReaderAndReturnXMLReaderGivenConcurrentGrowth() throws Exception {
+        ReaderPool readerPool = new DynamicReaderPool(1, 64, -1);
+        Set<XMLReader> borrowedXMLReaders = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        XMLReader xmlReader = readerPool.borrowXMLReader();
+                        if (xmlReader == null) {
+                            xmlReader = new NullSourceXMLReader();
+                        }
+                        assertTrue(borrowedXMLReaders.add(xmlReader));
+                        borrowedXMLReaders.remove(xmlReader);
+                        readerPool.returnXMLReader(xmlReader);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Set<XMLReader> pooledXMLReaders = new HashSet<>();
+        XMLReader xmlReader;
+        int pooledXMLReaderCount = 0;
+        while ((xmlReader = readerPool.borrowXMLReader()) != null) {
+            pooledXMLReaders.add(xmlReader);
+            pooledXMLReaderCount++;
+        }
+        assertEquals(pooledXMLReaderCount, pooledXMLReaders.size());
+        assertTrue(pooledXMLReaderCount > 0);
+    }
 }
@@ -0,0 +1,115 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 - 2024 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ * 
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ * 
+ * ======================================================================
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * ======================================================================
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery;
+
+import org.junit.jupiter.api.Test;
+import org.smooks.api.resource.config.ResourceConfig;
+import org.smooks.engine.resource.config.DefaultResourceConfig;
+import org.smooks.engine.resource.reader.NullSourceXMLReader;
+import org.xml.sax.XMLReader;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class XMLReaderRecipeTestCase {
+
+    @Test
+    public void testNewXMLReaderGivenDriverConfig() throws Exception {
+        XMLReaderRecipe xmlReaderRecipe = new XMLReaderRecipe(new DefaultResourceConfig(AbstractParser.ORG_XML_SAX_DRIVER, new Properties(), NullSourceXMLReader.class.getName()));
+        XMLReader xmlReader = xmlReaderRecipe.newXMLReader();
+
+        assertInstanceOf(NullSourceXMLReader.class, xmlReader);
+        assertInstanceOf(NullSourceXMLReader.class, xmlReaderRecipe.newXMLReader());
+        assertNotSame(xmlReader, xmlReaderRecipe.newXMLReader());
+    }
+
+    @Test
+    public void testConfigure() throws Exception {
+        ResourceConfig saxDriverConfig = new DefaultResourceConfig(AbstractParser.ORG_XML_SAX_DRIVER, new Properties());
+        saxDriverConfig.setParameter(AbstractParser.FEATURE_ON, "http://xml.org/sax/features/validation");
+        XMLReaderRecipe xmlReaderRecipe = new XMLReaderRecipe(saxDriverConfig);
+
+        for (int i = 0; i < 2; i++) {
+            XMLReader xmlReader = xmlReaderRecipe.newXMLReader();
+            xmlReaderRecipe.configure(xmlReader);
+
+            assertTrue(xmlReader.getFeature("http://xml.org/sax/features/namespaces"));
+            assertTrue(xmlReader.getFeature("http://xml.org/sax/features/validation"));
+        }
+    }
+
+    @Test
+    public void testCacheGet() {
+        XMLReaderRecipe.Cache xmlReaderRecipeCache = new XMLReaderRecipe.Cache();
+        ResourceConfig saxDriverConfig = new DefaultResourceConfig(AbstractParser.ORG_XML_SAX_DRIVER, new Properties(), NullSourceXMLReader.class.getName());
+
+        assertSame(xmlReaderRecipeCache.get(saxDriverConfig), xmlReaderRecipeCache.get(saxDriverConfig));
+        assertSame(xmlReaderRecipeCache.get(null), xmlReaderRecipeCache.get(null));
+        assertNotSame(xmlReaderRecipeCache.get(saxDriverConfig), xmlReaderRecipeCache.get(null));
+    }
+
+    @Test
+    public void testCacheGetGivenChangedDriverConfig() throws Exception {
+        XMLReaderRecipe.Cache xmlReaderRecipeCache = new XMLReaderRecipe.Cache();
+        ResourceConfig saxDriverConfig = new DefaultResourceConfig(AbstractParser.ORG_XML_SAX_DRIVER, new Properties());
+        XMLReaderRecipe xmlReaderRecipe = xmlReaderRecipeCache.get(saxDriverConfig);
+        assertFalse(configure(xmlReaderRecipe).getFeature("http://xml.org/sax/features/validation"));
+
+        saxDriverConfig.setParameter(AbstractParser.FEATURE_ON, "http://xml.org/sax/features/validation");
+        XMLReaderRecipe changedXMLReaderRecipe = xmlReaderRecipeCache.get(saxDriverConfig);
+        assertNotSame(xmlReaderRecipe, changedXMLReaderRecipe);
+        assertTrue(configure(changedXMLReaderRecipe).getFeature("http://xml.org/sax/features/validation"));
+        assertSame(changedXMLReaderRecipe, xmlReaderRecipeCache.get(saxDriverConfig));
+    }
+
+    private XMLReader configure(XMLReaderRecipe xmlReaderRecipe) throws Exception {
+        XMLReader xmlReader = xmlReaderRecipe.newXMLReader();
+        xmlReaderRecipe.configure(xmlReader);
+        return xmlReader;
+    }
+}
@@ -44,9 +44,12 @@ package org.smooks.engine.delivery.fragment;
 
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,4 +88,110 @@ public class NodeFragmentTestCase {
 
         assertNotEquals(barNodeFragment, fooNodeFragment);
     }
+
+    @Test
+    public void testGetLongIdIsMonotonic() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        NodeFragment barNodeFragment = new NodeFragment(document.appendChild(document.createElement("bar")));
+        NodeFragment fooNodeFragment = new NodeFragment(barNodeFragment.unwrap().appendChild(document.createElement("foo")));
+
+        long barId = barNodeFragment.getLongId();
+        assertTrue(fooNodeFragment.getLongId() > barId);
+        assertEquals(barNodeFragment.getLongId(), new NodeFragment(barNodeFragment.unwrap()).getLongId());
+        assertEquals(Long.toString(barNodeFragment.getLongId()), barNodeFragment.getId());
+    }
+
+    @Test
+    public void testConstructorKeepsExistingId() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        long id = NodeFragment.reserveIds(2);
+        NodeFragment nodeFragment = new NodeFragment(document, false, id);
+
+        assertEquals(id, nodeFragment.getLongId());
+        assertEquals(id, new NodeFragment(document, false, id + 1).getLongId());
+        assertEquals(id, new NodeFragment(document).getLongId());
+    }
+
+    @Test
+    public void testReserveGivenInheritableReservation() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Node bar = document.appendChild(document.createElement("bar"));
+        NodeFragment barNodeFragment = new NodeFragment(bar, true);
+        Object barToken = new Object();
+        Object fooToken = new Object();
+
+        assertTrue(barNodeFragment.reserve(1, barToken));
+        NodeFragment fooNodeFragment = new NodeFragment(bar.appendChild(document.createElement("foo")));
+        assertFalse(fooNodeFragment.reserve(1, fooToken));
+        assertTrue(fooNodeFragment.reserve(1, barToken));
+        assertFalse(fooNodeFragment.release(1, fooToken));
+
+        assertTrue(barNodeFragment.release(1, barToken));
+        assertTrue(fooNodeFragment.reserve(1, fooToken));
+        assertFalse(new NodeFragment(fooNodeFragment.unwrap()).reserve(1, barToken));
+    }
+
+    @Test
+    public void testReserveGivenNonInheritableReservation() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Node bar = document.appendChild(document.createElement("bar"));
+        NodeFragment barNodeFragment = new NodeFragment(bar);
+        NodeFragment fooNodeFragment = new NodeFragment(bar.appendChild(document.createElement("foo")));
+
+        assertTrue(barNodeFragment.reserve(1, "bar"));
+        assertFalse(barNodeFragment.reserve(1, "foo"));
+        assertTrue(fooNodeFragment.reserve(1, "foo"));
+    }
+
+    @Test
+    public void testReserveGivenInheritableReservationAndDetachedCopy() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Node bar = document.appendChild(document.createElement("bar"));
+        NodeFragment barNodeFragment = new NodeFragment(bar, true);
+        Object barToken = new Object();
+        assertTrue(barNodeFragment.reserve(1, barToken));
+
+        Node foo = bar.appendChild(document.createElement("foo"));
+        new NodeFragment(foo);
+        Node baz = foo.appendChild(document.createElement("baz"));
+
+        Document detachedDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Node detachedFoo = detachedDocument.appendChild(detachedDocument.importNode(foo, true));
+        assertFalse(new NodeFragment(detachedFoo).reserve(1, new Object()));
+        assertTrue(new NodeFragment(detachedFoo).reserve(1, barToken));
+        assertFalse(new NodeFragment(detachedFoo.getFirstChild()).reserve(1, new Object()));
+        assertFalse(new NodeFragment(baz).reserve(1, new Object()));
+
+        assertTrue(barNodeFragment.release(1, barToken));
+        assertTrue(new NodeFragment(detachedFoo).reserve(1, new Object()));
+    }
+
+    @Test
+    public void testNewNodeFragmentLooksUpParentOnly() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Node node = document;
+        for (int i = 0; i < 100; i++) {
+            node = node.appendChild(document.createElement("e" + i));
+            new NodeFragment(node, true).reserve(i, "e" + i);
+        }
+        AtomicInteger parentNodeLookups = new AtomicInteger();
+        NodeFragment nodeFragment = new NodeFragment(newParentNodeLookupCountingNode(node.appendChild(document.createElement("leaf")), parentNodeLookups));
+        assertEquals(1, parentNodeLookups.get());
+        assertFalse(nodeFragment.reserve(0, "leaf"));
+        assertFalse(nodeFragment.reserve(99, "leaf"));
+        assertTrue(nodeFragment.reserve(100, "leaf"));
+        assertTrue(nodeFragment.release(100, "leaf"));
+        assertTrue(nodeFragment.release(50, "e50"));
+        assertEquals(1, parentNodeLookups.get());
+    }
+
+    private Node newParentNodeLookupCountingNode(Node node, AtomicInteger parentNodeLookups) {
+        return (Node) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Node.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getParentNode")) {
+                parentNodeLookups.incrementAndGet();
+                return node.getParentNode() == null ? null : newParentNodeLookupCountingNode(node.getParentNode(), parentNodeLookups);
+            }
+            return method.invoke(node, args);
+        });
+    }
 }
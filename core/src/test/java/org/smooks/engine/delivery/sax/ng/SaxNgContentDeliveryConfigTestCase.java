@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery.sax.ng;
+
+import org.junit.jupiter.api.Test;
+import org.smooks.Smooks;
+import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
+import org.xml.sax.SAXException;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SaxNgContentDeliveryConfigTestCase {
+
+    @Test
+    public void testGetElementSymbol() {
+        Smooks smooks = new Smooks();
+        smooks.addVisitor((BeforeVisitor) (element, executionContext) -> {
+        }, "b");
+        SaxNgContentDeliveryConfig saxNgContentDeliveryConfig = (SaxNgContentDeliveryConfig) smooks.createExecutionContext().getContentDeliveryRuntime().getContentDeliveryConfig();
+
+        ElementSymbol elementSymbol = saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "f:b");
+        assertSame(elementSymbol, saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "f:b"));
+        assertEquals(new QName("urn:foo", "b", "f"), elementSymbol.getQName());
+        assertEquals("f", elementSymbol.getQName().getPrefix());
+        assertEquals("f:b", elementSymbol.getQualifiedName());
+        assertNotNull(elementSymbol.getVisitorBindings());
+        assertSame(saxNgContentDeliveryConfig.get("#document", "b"), elementSymbol.getDocumentFragmentVisitorBindings(saxNgContentDeliveryConfig));
+
+        ElementSymbol otherPrefixElementSymbol = saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "g:b");
+        assertNotSame(elementSymbol, otherPrefixElementSymbol);
+        assertEquals("g:b", otherPrefixElementSymbol.getQualifiedName());
+        assertSame(elementSymbol, saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "f:b"));
+        assertSame(otherPrefixElementSymbol, saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "g:b"));
+
+        ElementSymbol noLocalNameElementSymbol = saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "", "f:b");
+        assertSame(elementSymbol, noLocalNameElementSymbol);
+
+        ElementSymbol noNamespaceElementSymbol = saxNgContentDeliveryConfig.getElementSymbol(null, "c", "c");
+        assertEquals(new QName("c"), noNamespaceElementSymbol.getQName());
+        assertNull(noNamespaceElementSymbol.getVisitorBindings());
+    }
+
+    @Test
+    public void testGetVisitorBindingsGivenPrefixedSelector() throws IOException, SAXException {
+        Smooks smooks = new Smooks(getClass().getResourceAsStream("/org/smooks/engine/resource/config/xpath/config-04.xml"));
+        SaxNgContentDeliveryConfig saxNgContentDeliveryConfig = (SaxNgContentDeliveryConfig) smooks.createExecutionContext().getContentDeliveryRuntime().getContentDeliveryConfig();
+
+        SaxNgVisitorBindings visitorBindings = saxNgContentDeliveryConfig.get("units");
+        assertSame(visitorBindings, saxNgContentDeliveryConfig.getVisitorBindings(new QName("http://d", "units")));
+        assertEquals(visitorBindings.getAfterVisitors().size() - 1, saxNgContentDeliveryConfig.getVisitorBindings(new QName("http://c", "units")).getAfterVisitors().size());
+        assertEquals(visitorBindings.getAfterVisitors().size() - 1, saxNgContentDeliveryConfig.getVisitorBindings(new QName("units")).getAfterVisitors().size());
+        assertEquals(visitorBindings.getAfterVisitors().size() - 1, saxNgContentDeliveryConfig.getElementSymbol("http://c", "units", "c:units").getVisitorBindings().getAfterVisitors().size());
+    }
+
+    @Test
+    public void testGetElementSymbolGivenMaxElementSymbols() {
+        SaxNgContentDeliveryConfig saxNgContentDeliveryConfig = (SaxNgContentDeliveryConfig) new Smooks().createExecutionContext().getContentDeliveryRuntime().getContentDeliveryConfig();
+        for (int i = 0; i < SaxNgContentDeliveryConfig.MAX_ELEMENT_SYMBOLS; i++) {
+            saxNgContentDeliveryConfig.getElementSymbol("urn:" + i, "a" + i, "a" + i);
+        }
+        assertSame(saxNgContentDeliveryConfig.getElementSymbol("urn:0", "a0", "a0"), saxNgContentDeliveryConfig.getElementSymbol("urn:0", "a0", "a0"));
+
+        ElementSymbol elementSymbol = saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "b");
+        assertEquals(new QName("urn:foo", "b"), elementSymbol.getQName());
+        assertNotSame(elementSymbol, saxNgContentDeliveryConfig.getElementSymbol("urn:foo", "b", "b"));
+    }
+}
@@ -47,7 +47,15 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.smooks.Smooks;
 import org.smooks.api.ExecutionContext;
+import org.smooks.api.SmooksException;
+import org.smooks.api.resource.visitor.sax.ng.AfterVisitor;
+import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
+import org.smooks.api.resource.visitor.sax.ng.ParameterizedVisitor;
+import org.smooks.engine.DefaultApplicationContextBuilder;
+import org.smooks.engine.DefaultFilterSettings;
 import org.smooks.engine.report.FlatReportGenerator;
+import org.smooks.io.Stream;
+import org.smooks.io.sink.DOMSink;
 import org.smooks.io.sink.StreamSink;
 import org.smooks.io.sink.WriterSink;
 import org.smooks.io.source.ReaderSource;
@@ -55,18 +63,27 @@ import org.smooks.io.source.StreamSource;
 import org.smooks.io.source.StringSource;
 import org.smooks.support.StreamUtils;
 import org.smooks.testkit.TextUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
+import javax.xml.XMLConstants;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.smooks.testkit.Assertions.compareCharStreams;
 
@@ -291,6 +308,187 @@ public class SaxNgFilterTestCase {
         AfterVisitorAndChildrenVisitor.reset();
     }
     
+    @Test
+    public void testUnboundAncestorsAreBuiltForBoundElement() {
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setDefaultSerializationOn(false)).build());
+        List<Element> visitedElements = new ArrayList<>();
+        smooks.addVisitor((BeforeVisitor) (element, executionContext) -> {
+            visitedElements.add(element);
+            assertEquals("b", element.getParentNode().getNodeName());
+            assertEquals("1", ((Element) element.getParentNode()).getAttribute("attr"));
+            assertEquals("urn:y", ((Element) element.getParentNode()).getAttributeNS("urn:x", "attr"));
+            assertEquals("a", element.getParentNode().getParentNode().getNodeName());
+        }, "c");
+
+        smooks.filterSource(smooks.createExecutionContext(), new StringSource("<a><x><y>text</y></x><b attr=\"1\" xmlns:x=\"urn:x\" x:attr=\"urn:y\"><c/>text<c/></b></a>"));
+        assertEquals(2, visitedElements.size());
+    }
+
+    @Test
+    public void testUnboundElementsAreSkippedWhenElementStackIsNotMaintained() {
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setDefaultSerializationOn(false).setMaintainElementStack(false)).build());
+        List<Element> visitedElements = new ArrayList<>();
+        smooks.addVisitor((BeforeVisitor) (element, executionContext) -> visitedElements.add(element), "c");
+
+        smooks.filterSource(smooks.createExecutionContext(), new StringSource("<a><x><y>text</y></x><b attr=\"1\"><c/>text<c/></b>text</a>"));
+        assertEquals(2, visitedElements.size());
+    }
+
+    @Test
+    public void testUnboundElementTextIsAppendedToProcessedAncestorWhenElementStackIsNotMaintained() {
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setDefaultSerializationOn(false).setMaintainElementStack(false)).build());
+        List<String> textContents = new ArrayList<>();
+        smooks.addVisitor(new ParameterizedVisitor() {
+            @Override
+            public void visitBefore(Element element, ExecutionContext executionContext) {
+            }
+
+            @Override
+            public void visitAfter(Element element, ExecutionContext executionContext) {
+                textContents.add(element.getTextContent());
+            }
+
+            @Override
+            public int getMaxNodeDepth() {
+                return Integer.MAX_VALUE;
+            }
+        }, "a");
+
+        smooks.filterSource(smooks.createExecutionContext(), new StringSource("<a>1<x>2<y>3</y></x>4</a>"));
+        assertEquals(Collections.singletonList("1234"), textContents);
+    }
+
+    @Test
+    public void testUnboundElementEndDoesNotEndProcessedAncestorWhenElementStackIsNotMaintained() {
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setDefaultSerializationOn(false).setMaintainElementStack(false)).build());
+        List<String> parentNodeNames = new ArrayList<>();
+        smooks.addVisitor((AfterVisitor) (element, executionContext) -> parentNodeNames.add(element.getParentNode().getNodeName()), "a");
+        smooks.addVisitor((BeforeVisitor) (element, executionContext) -> parentNodeNames.add(element.getParentNode().getNodeName()), "b");
+
+        smooks.filterSource(smooks.createExecutionContext(), new StringSource("<a><x/><b/><x/><b/></a>"));
+        assertEquals(Arrays.asList("a", "a", "#document"), parentNodeNames);
+    }
+
+    @Test
+    public void testMaxNodeDepthGivenGlobalParam() {
+        assertEquals("c() a(1,b(2,c(),6),7,f(8,g()))", filterMaxNodeDepth(true, 3, null));
+    }
+
+    @Test
+    public void testMaxNodeDepthGivenGlobalParamWhenElementStackIsNotMaintained() {
+        assertEquals("c(3,4,5) a(1,2,c(3,4,5),6,7,8,9)", filterMaxNodeDepth(false, 3, null));
+    }
+
+    @Test
+    public void testMaxNodeDepthGivenParameterizedVisitor() {
+        assertEquals("c() a(1,b(2,c(),6),7,f(8,g()))", filterMaxNodeDepth(true, 1, 3));
+    }
+
+    @Test
+    public void testMaxNodeDepthGivenParameterizedVisitorWhenElementStackIsNotMaintained() {
+        assertEquals("c(3,4,5) a(1,2,c(3,4,5),6,7,8,9)", filterMaxNodeDepth(false, 1, 3));
+    }
+
+    private String filterMaxNodeDepth(boolean maintainElementStack, int globalMaxNodeDepth, Integer visitorMaxNodeDepth) {
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setDefaultSerializationOn(false).setMaintainElementStack(maintainElementStack).setMaxNodeDepth(globalMaxNodeDepth)).build());
+        List<String> trees = new ArrayList<>();
+        if (visitorMaxNodeDepth == null) {
+            smooks.addVisitor((AfterVisitor) (element, executionContext) -> trees.add(toTree(element)), "a");
+        } else {
+            smooks.addVisitor(new ParameterizedVisitor() {
+                @Override
+                public void visitBefore(Element element, ExecutionContext executionContext) {
+                }
+
+                @Override
+                public void visitAfter(Element element, ExecutionContext executionContext) {
+                    trees.add(toTree(element));
+                }
+
+                @Override
+                public int getMaxNodeDepth() {
+                    return visitorMaxNodeDepth;
+                }
+            }, "a");
+        }
+        smooks.addVisitor((AfterVisitor) (element, executionContext) -> trees.add(toTree(element)), "c");
+
+        smooks.filterSource(smooks.createExecutionContext(), new StringSource("<a>1<b>2<c>3<d>4<e>5</e></d></c>6</b>7<f>8<g>9</g></f></a>"));
+        return String.join(" ", trees);
+    }
+
+    private static String toTree(Node node) {
+        if (node.getNodeType() != Node.ELEMENT_NODE) {
+            return node.getNodeValue();
+        }
+        StringBuilder tree = new StringBuilder(node.getNodeName()).append('(');
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child != node.getFirstChild()) {
+                tree.append(',');
+            }
+            tree.append(toTree(child));
+        }
+        return tree.append(')').toString();
+    }
+
+    @Test
+    public void testDOMSink() {
+        Smooks smooks = new Smooks();
+        DOMSink domSink = new DOMSink();
+
+        smooks.filterSource(new StringSource("<?xml version=\"1.0\"?><a xmlns=\"urn:a\" xmlns:x=\"urn:x\" attr=\"1\" x:attr=\"2\"><!-- header --><x:b>text &amp; more<![CDATA[<raw>]]></x:b><c/></a>"), domSink);
+
+        Element a = ((Document) domSink.getNode()).getDocumentElement();
+        assertEquals("urn:a", a.getNamespaceURI());
+        assertEquals("a", a.getLocalName());
+        assertEquals("1", a.getAttribute("attr"));
+        assertEquals("2", a.getAttributeNS("urn:x", "attr"));
+        assertEquals("urn:x", a.getAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, "x"));
+
+        assertEquals(Node.COMMENT_NODE, a.getFirstChild().getNodeType());
+        assertEquals(" header ", a.getFirstChild().getNodeValue());
+
+        Element b = (Element) a.getFirstChild().getNextSibling();
+        assertEquals("urn:x", b.getNamespaceURI());
+        assertEquals("x:b", b.getNodeName());
+        assertEquals("text & more", b.getFirstChild().getNodeValue());
+        assertEquals(Node.CDATA_SECTION_NODE, b.getLastChild().getNodeType());
+        assertEquals("<raw>", b.getLastChild().getNodeValue());
+
+        assertEquals("c", b.getNextSibling().getNodeName());
+        assertEquals("urn:a", b.getNextSibling().getNamespaceURI());
+    }
+
+    @Test
+    public void testDOMSinkGivenDocType() {
+        Smooks smooks = new Smooks();
+
+        SmooksException smooksException = assertThrows(SmooksException.class, () -> smooks.filterSource(new StringSource("<!DOCTYPE a SYSTEM \"a.dtd\"><a/>"), new DOMSink()));
+        Throwable cause = smooksException;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause instanceof SmooksException);
+        assertTrue(cause.getMessage().contains("DOCTYPE"));
+    }
+
+    @Test
+    public void testStreamSinkGivenVisitorException() {
+        Smooks smooks = new Smooks();
+        smooks.addVisitor((BeforeVisitor) (element, executionContext) -> {
+            try {
+                Stream.out(executionContext).write("<partial/>");
+            } catch (IOException e) {
+                throw new SmooksException(e);
+            }
+            throw new IllegalStateException();
+        }, "c");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertThrows(SmooksException.class, () -> smooks.filterSource(new StringSource("<a><b>text</b><c/></a>"), new StreamSink<>(outputStream)));
+        assertTrue(outputStream.toString().startsWith("<a><b>text</b><partial/>"));
+    }
+
     @Test
     @Disabled("FIXME")
     public void testReport() throws IOException, SAXException {
@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.delivery.sax.ng.org.apache.xerces.dom;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.UserDataHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class NodeImplTestCase {
+
+    @Test
+    public void testSetUserDataGivenMiddleKeyRemoved() {
+        Element element = new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", null);
+        element.setUserData("bar", "BAR", null);
+        element.setUserData("baz", "BAZ", null);
+
+        assertEquals("BAR", element.setUserData("bar", null, null));
+        assertNull(element.getUserData("bar"));
+        assertEquals("FOO", element.getUserData("foo"));
+        assertEquals("BAZ", element.getUserData("baz"));
+
+        assertNull(element.setUserData("bar", "BAR2", null));
+        assertEquals("BAR2", element.getUserData("bar"));
+        assertEquals("FOO", element.getUserData("foo"));
+        assertEquals("BAZ", element.getUserData("baz"));
+    }
+
+    @Test
+    public void testSetUserDataGivenExistingKey() {
+        UserDataHandler userDataHandler = (operation, key, data, src, dst) -> {
+        };
+        NodeImpl element = (NodeImpl) new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", null);
+
+        assertEquals("FOO", element.setUserData("foo", "FOO2", userDataHandler));
+        assertEquals("FOO2", element.getUserData("foo"));
+        assertEquals(1, element.getUserDataRecord().size());
+        assertSame(userDataHandler, ((ParentNode.UserDataRecord) element.getUserDataRecord().get("foo")).fHandler);
+    }
+
+    @Test
+    public void testSetUserDataGivenMoreThanTwoKeys() {
+        NodeImpl element = (NodeImpl) new DocumentImpl().createElement("a");
+        for (int i = 0; i < 10; i++) {
+            assertNull(element.setUserData("key" + i, "data" + i, null));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("data" + i, element.getUserData("key" + i));
+        }
+        assertEquals(10, element.getUserDataRecord().size());
+        assertNull(element.getUserData("key10"));
+    }
+
+    @Test
+    public void testSetUserDataGivenNullDataAndMissingKey() {
+        NodeImpl element = (NodeImpl) new DocumentImpl().createElement("a");
+        assertNull(element.setUserData("foo", null, null));
+        assertNull(element.getUserData("foo"));
+        assertNull(element.getUserDataRecord());
+
+        element.setUserData("bar", "BAR", null);
+        assertNull(element.setUserData("foo", null, null));
+        assertEquals("BAR", element.getUserData("bar"));
+
+        element.setUserData("bar", null, null);
+        assertNull(element.getUserDataRecord());
+    }
+
+    @Test
+    public void testCloneNodeCallsUserDataHandler() {
+        List<Object> events = new ArrayList<>();
+        UserDataHandler userDataHandler = (operation, key, data, src, dst) -> {
+            events.addAll(Arrays.asList(operation, key, data, src, dst));
+            dst.setUserData(key, data, null);
+        };
+        Element element = new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", userDataHandler);
+
+        Node clone = element.cloneNode(false);
+        assertEquals(Arrays.asList(UserDataHandler.NODE_CLONED, "foo", "FOO", element, clone), events);
+        assertEquals("FOO", clone.getUserData("foo"));
+    }
+
+    @Test
+    public void testCloneNodeDoesNotShareUserData() {
+        Element element = new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", null);
+
+        Node clone = element.cloneNode(true);
+        assertNull(clone.getUserData("foo"));
+
+        clone.setUserData("bar", "BAR", null);
+        assertNull(element.getUserData("bar"));
+        assertEquals("FOO", element.getUserData("foo"));
+    }
+
+    @Test
+    public void testImportNodeCallsUserDataHandler() {
+        List<Object> events = new ArrayList<>();
+        UserDataHandler userDataHandler = (operation, key, data, src, dst) -> events.addAll(Arrays.asList(operation, key, data, src, dst));
+        Element element = new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", userDataHandler);
+        element.setUserData("bar", "BAR", null);
+
+        Node importedNode = new DocumentImpl().importNode(element, true);
+        assertEquals(Arrays.asList(UserDataHandler.NODE_IMPORTED, "foo", "FOO", element, importedNode), events);
+        assertNull(importedNode.getUserData("bar"));
+    }
+
+    @Test
+    public void testAdoptNodeCallsUserDataHandler() {
+        List<Object> events = new ArrayList<>();
+        UserDataHandler userDataHandler = (operation, key, data, src, dst) -> events.addAll(Arrays.asList(operation, key, data, src, dst));
+        Element element = new DocumentImpl().createElement("a");
+        element.setUserData("foo", "FOO", userDataHandler);
+
+        Document document = new DocumentImpl();
+        Node adoptedNode = document.adoptNode(element);
+        assertSame(element, adoptedNode);
+        assertSame(document, adoptedNode.getOwnerDocument());
+        assertEquals(Arrays.asList(UserDataHandler.NODE_ADOPTED, "foo", "FOO", element, null), events);
+        assertEquals("FOO", adoptedNode.getUserData("foo"));
+    }
+}
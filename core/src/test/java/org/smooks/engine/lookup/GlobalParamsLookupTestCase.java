@@ -0,0 +1,133 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.lookup;
+
+import org.junit.jupiter.api.Test;
+import org.smooks.Smooks;
+import org.smooks.api.Registry;
+import org.smooks.api.resource.config.ResourceConfig;
+import org.smooks.api.resource.config.ResourceConfigSeq;
+import org.smooks.engine.resource.config.GlobalParamsResourceConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GlobalParamsLookupTestCase {
+
+    @Test
+    public void testApplyReturnsSnapshotUntilResourceConfigsChange() {
+        Registry registry = new Smooks().getApplicationContext().getRegistry();
+
+        GlobalParamsLookup.ParameterAccessor parameterAccessor = registry.lookup(new GlobalParamsLookup());
+        assertSame(parameterAccessor, registry.lookup(new GlobalParamsLookup()));
+
+        ResourceConfig globalParamsResourceConfig = new GlobalParamsResourceConfig();
+        globalParamsResourceConfig.setParameter("foo", "bar");
+        registry.registerResourceConfig(globalParamsResourceConfig);
+
+        GlobalParamsLookup.ParameterAccessor newParameterAccessor = registry.lookup(new GlobalParamsLookup());
+        assertNotSame(parameterAccessor, newParameterAccessor);
+        assertEquals("bar", newParameterAccessor.getParameterValue("foo"));
+        assertSame(newParameterAccessor, registry.lookup(new GlobalParamsLookup()));
+    }
+
+    @Test
+    public void testApplyReturnsChangedParameterValue() {
+        Registry registry = new Smooks().getApplicationContext().getRegistry();
+        ResourceConfig globalParamsResourceConfig = new GlobalParamsResourceConfig();
+        globalParamsResourceConfig.setParameter("foo", "bar");
+        registry.registerResourceConfig(globalParamsResourceConfig);
+        assertEquals("bar", registry.lookup(new GlobalParamsLookup()).getParameterValue("foo"));
+
+        ResourceConfigSeq globalResourceConfigSeq = registry.lookup(new GlobalResourceConfigSeqLookup());
+        ResourceConfig registeredResourceConfig = globalResourceConfigSeq.get(globalResourceConfigSeq.size() - 1);
+        registeredResourceConfig.removeParameter("foo");
+        registeredResourceConfig.setParameter("foo", "baz");
+        assertEquals("baz", registry.lookup(new GlobalParamsLookup()).getParameterValue("foo"));
+
+        registeredResourceConfig.removeParameter("foo");
+        assertNull(registry.lookup(new GlobalParamsLookup()).getParameterValue("foo"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        Registry registry = new Smooks().getApplicationContext().getRegistry();
+        assertNull(registry.lookup(new GlobalParamsLookup()).getParameterValue("foo"));
+
+        ResourceConfig globalParamsResourceConfig = new GlobalParamsResourceConfig();
+        globalParamsResourceConfig.setParameter("foo", "bar");
+        registry.lookup(new GlobalResourceConfigSeqLookup()).add(globalParamsResourceConfig);
+
+        ((GlobalParamsLookup.Cache) registry.lookup(GlobalParamsLookup.Cache.class)).invalidate();
+        assertEquals("bar", registry.lookup(new GlobalParamsLookup()).getParameterValue("foo"));
+    }
+
+    @Test
+    public void testGetParameterValueGivenSystemPropertySetAfterLookup() {
+        Registry registry = new Smooks().getApplicationContext().getRegistry();
+        ResourceConfig globalParamsResourceConfig = new GlobalParamsResourceConfig();
+        globalParamsResourceConfig.setParameter("smooks.test.configured", "bar");
+        registry.registerResourceConfig(globalParamsResourceConfig);
+
+        GlobalParamsLookup.ParameterAccessor parameterAccessor = registry.lookup(new GlobalParamsLookup());
+        assertEquals("bar", parameterAccessor.getParameterValue("smooks.test.configured"));
+        assertNull(parameterAccessor.getParameterValue("smooks.test.unconfigured"));
+
+        System.setProperty("smooks.test.configured", "baz");
+        System.setProperty("smooks.test.unconfigured", "qux");
+        try {
+            assertSame(parameterAccessor, registry.lookup(new GlobalParamsLookup()));
+            assertEquals("baz", parameterAccessor.getParameterValue("smooks.test.configured"));
+            assertEquals("baz", parameterAccessor.getParameters().get("smooks.test.configured"));
+            assertEquals("qux", parameterAccessor.getParameterValue("smooks.test.unconfigured"));
+        } finally {
+            System.clearProperty("smooks.test.configured");
+            System.clearProperty("smooks.test.unconfigured");
+        }
+
+        assertEquals("bar", parameterAccessor.getParameterValue("smooks.test.configured"));
+        assertNull(parameterAccessor.getParameterValue("smooks.test.unconfigured"));
+    }
+}
@@ -43,11 +43,16 @@
 package org.smooks.engine.lookup;
 
 import org.junit.jupiter.api.Test;
+import org.smooks.Smooks;
+import org.smooks.api.ExecutionContext;
+import org.smooks.api.Registry;
+import org.smooks.api.lifecycle.FilterLifecycle;
 
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class InstanceLookupTestCase {
 
@@ -64,4 +69,54 @@ public class InstanceLookupTestCase {
         assertEquals("foo", result.get("bar"));
     }
 
+    @Test
+    public void testApplyGivenTypeIndex() {
+        InstanceLookup.TypeIndex typeIndex = new InstanceLookup.TypeIndex();
+        Map<Object, Object> registryEntries = new HashMap<>();
+        registryEntries.put(InstanceLookup.TypeIndex.class, typeIndex);
+        registryEntries.put("bar", "foo");
+
+        InstanceLookup<String> instanceLookup = new InstanceLookup<>(String.class);
+        assertEquals(1, instanceLookup.apply(registryEntries).size());
+
+        registryEntries.put("baz", "qux");
+        typeIndex.onRegister("baz", "qux");
+        registryEntries.put("quuz", 1);
+        typeIndex.onRegister("quuz", 1);
+
+        Map<Object, String> result = instanceLookup.apply(registryEntries);
+        assertEquals(2, result.size());
+        assertEquals("foo", result.get("bar"));
+        assertEquals("qux", result.get("baz"));
+
+        registryEntries.remove("bar");
+        typeIndex.onDeRegister("bar");
+        result = instanceLookup.apply(registryEntries);
+        assertEquals(1, result.size());
+        assertEquals("qux", result.get("baz"));
+    }
+
+    @Test
+    public void testApplyOnDefaultRegistry() {
+        Registry registry = new Smooks().getApplicationContext().getRegistry();
+        int filterLifecycleCount = registry.lookup(new InstanceLookup<>(FilterLifecycle.class)).size();
+
+        FilterLifecycle filterLifecycle = new FilterLifecycle() {
+            @Override
+            public void onPreFilter(ExecutionContext executionContext) {
+
+            }
+
+            @Override
+            public void onPostFilter(ExecutionContext executionContext) {
+
+            }
+        };
+        registry.registerObject("filterLifecycle", filterLifecycle);
+        assertSame(filterLifecycle, registry.lookup(new InstanceLookup<>(FilterLifecycle.class)).get("filterLifecycle"));
+        assertEquals(filterLifecycleCount + 1, registry.lookup(new InstanceLookup<>(FilterLifecycle.class)).size());
+
+        registry.deRegisterObject("filterLifecycle");
+        assertEquals(filterLifecycleCount, registry.lookup(new InstanceLookup<>(FilterLifecycle.class)).size());
+    }
 }
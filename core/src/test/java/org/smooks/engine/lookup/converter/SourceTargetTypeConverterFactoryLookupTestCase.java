@@ -54,6 +54,8 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class SourceTargetTypeConverterFactoryLookupTestCase {
     
@@ -141,4 +143,64 @@ public class SourceTargetTypeConverterFactoryLookupTestCase {
         TypeConverter<? super String, ? extends Integer> typeConverter = sourceTargetTypeConverterFactoryLookup.apply(registryEntries).createTypeConverter();
         assertNotNull(typeConverter.convert("1"));
     }
+
+    @Test
+    public void testApplyGivenIndex() {
+        SourceTargetTypeConverterFactoryLookup.Index index = new SourceTargetTypeConverterFactoryLookup.Index(new HashSet<>());
+        Set<TypeConverterFactory<?, ?>> typeConverterFactories = index.getTypeConverterFactories();
+        Map<Object, Object> registryEntries = new HashMap<>();
+        registryEntries.put(TypeConverterFactoryLookup.TYPE_CONVERTER_FACTORY_REGISTRY_KEY, typeConverterFactories);
+        registryEntries.put(SourceTargetTypeConverterFactoryLookup.Index.class, index);
+
+        TypeConverterFactory<String, Integer> lowPriorityTypeConverterFactory = new TypeConverterFactory<String, Integer>() {
+            @Override
+            public TypeConverter<String, Integer> createTypeConverter() {
+                throw new AssertionError();
+            }
+
+            @Override
+            public TypeConverterDescriptor<Class<String>, Class<Integer>> getTypeConverterDescriptor() {
+                return new DefaultTypeConverterDescriptor<>(String.class, Integer.class);
+            }
+        };
+
+        TypeConverterFactory<String, Integer> highPriorityTypeConverterFactory = new TypeConverterFactory<String, Integer>() {
+            @Override
+            public TypeConverter<String, Integer> createTypeConverter() {
+                return Integer::valueOf;
+            }
+
+            @Override
+            public TypeConverterDescriptor<Class<String>, Class<Integer>> getTypeConverterDescriptor() {
+                return new DefaultTypeConverterDescriptor<>(String.class, Integer.class, Short.MAX_VALUE);
+            }
+        };
+
+        typeConverterFactories.add(lowPriorityTypeConverterFactory);
+        assertSame(lowPriorityTypeConverterFactory, new SourceTargetTypeConverterFactoryLookup<>(String.class, Integer.class).apply(registryEntries));
+        assertNull(new SourceTargetTypeConverterFactoryLookup<>(Integer.class, String.class).apply(registryEntries));
+
+        typeConverterFactories.add(highPriorityTypeConverterFactory);
+        assertSame(highPriorityTypeConverterFactory, new SourceTargetTypeConverterFactoryLookup<>(String.class, Integer.class).apply(registryEntries));
+
+        typeConverterFactories.remove(highPriorityTypeConverterFactory);
+        typeConverterFactories.add(new TypeConverterFactory<Integer, String>() {
+            @Override
+            public TypeConverter<Integer, String> createTypeConverter() {
+                throw new AssertionError();
+            }
+
+            @Override
+            public TypeConverterDescriptor<Class<Integer>, Class<String>> getTypeConverterDescriptor() {
+                return new DefaultTypeConverterDescriptor<>(Integer.class, String.class);
+            }
+        });
+        assertSame(lowPriorityTypeConverterFactory, new SourceTargetTypeConverterFactoryLookup<>(String.class, Integer.class).apply(registryEntries));
+        assertNotNull(new SourceTargetTypeConverterFactoryLookup<>(Integer.class, String.class).apply(registryEntries));
+
+        Set<TypeConverterFactory<?, ?>> replacementTypeConverterFactories = new HashSet<>();
+        replacementTypeConverterFactories.add(highPriorityTypeConverterFactory);
+        registryEntries.put(TypeConverterFactoryLookup.TYPE_CONVERTER_FACTORY_REGISTRY_KEY, replacementTypeConverterFactories);
+        assertSame(highPriorityTypeConverterFactory, new SourceTargetTypeConverterFactoryLookup<>(String.class, Integer.class).apply(registryEntries));
+    }
 }
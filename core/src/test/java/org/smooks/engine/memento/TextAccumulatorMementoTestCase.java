@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.memento;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.smooks.Smooks;
+import org.smooks.api.delivery.fragment.Fragment;
+import org.smooks.api.memento.Memento;
+import org.smooks.api.memento.MementoCaretaker;
+import org.smooks.engine.delivery.fragment.NodeFragment;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextAccumulatorMementoTestCase {
+
+    private Fragment<?> fragment;
+
+    @BeforeEach
+    public void beforeEach() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        fragment = new NodeFragment(document.appendChild(document.createElement("a")));
+    }
+
+    @Test
+    public void testStash() {
+        MementoCaretaker mementoCaretaker = new Smooks().createExecutionContext().getMementoCaretaker();
+        for (int i = 0; i < 1000; i++) {
+            final String chunk = Integer.toString(i);
+            mementoCaretaker.stash(new TextAccumulatorMemento(fragment), textAccumulatorMemento -> textAccumulatorMemento.accumulateText(chunk));
+        }
+
+        TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(fragment);
+        mementoCaretaker.restore(textAccumulatorMemento);
+        StringBuilder expectedText = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            expectedText.append(i);
+        }
+        assertEquals(expectedText.toString(), textAccumulatorMemento.getText());
+    }
+
+    @Test
+    public void testCopyIsNotAffectedByLaterAccumulation() {
+        TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(fragment).accumulateText("foo");
+        Memento copy = textAccumulatorMemento.copy();
+
+        textAccumulatorMemento.accumulateText("bar");
+        assertEquals("foobar", textAccumulatorMemento.getText());
+        assertEquals("foo", ((TextAccumulatorMemento) copy).getText());
+
+        ((TextAccumulatorMemento) copy).accumulateText("baz");
+        assertEquals("foobaz", ((TextAccumulatorMemento) copy).getText());
+        assertEquals("foobar", textAccumulatorMemento.getText());
+    }
+
+    @Test
+    public void testRestoreAppendsToAccumulatedText() {
+        TextAccumulatorMemento textAccumulatorMemento = new TextAccumulatorMemento(fragment).accumulateText("foo");
+        TextAccumulatorMemento otherTextAccumulatorMemento = new TextAccumulatorMemento(fragment).accumulateText("bar");
+
+        textAccumulatorMemento.restore(otherTextAccumulatorMemento);
+        assertEquals("foobar", textAccumulatorMemento.getText());
+        assertEquals("bar", otherTextAccumulatorMemento.getText());
+    }
+}
@@ -0,0 +1,126 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.engine.resource.config.xpath;
+
+import org.jaxen.Context;
+import org.jaxen.ContextSupport;
+import org.jaxen.JaxenException;
+import org.jaxen.SimpleNamespaceContext;
+import org.jaxen.SimpleVariableContext;
+import org.jaxen.XPathFunctionContext;
+import org.jaxen.dom.DocumentNavigator;
+import org.junit.jupiter.api.Test;
+import org.smooks.api.resource.config.xpath.SelectorPath;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CompiledPatternTestCase {
+
+    private static final String XML = "<a xmlns:x=\"urn:x\"><b id=\"1\"><c x:id=\"2\"/><x:c/></b><d><b><c/></b><e><c/></e></d></a>";
+
+    @Test
+    public void testCompiledPatternMatchesJaxenPattern() throws Exception {
+        Properties namespaces = new Properties();
+        namespaces.setProperty("x", "urn:x");
+        namespaces.setProperty("y", "urn:y");
+
+        Document document = parse();
+        String[] selectors = {"*", "c", "b/c", "a/b/c", "/a", "/a/b", "#document/a/d", "a//c", "d//c", "x:c", "x:*", "y:c",
+                "b/@id", "c/@x:id", "@id", "b/*", "b | e", "b/c | e/c", "c[1]", "b/c[text() = 'foo']", "node()"};
+        for (String selector : selectors) {
+            JaxenPatternSelectorPath selectorPath = (JaxenPatternSelectorPath) SelectorPathFactory.newSelectorPath(selector, namespaces);
+            assertNotNull(selectorPath.getCompiledPattern(), selector);
+            for (Node node : getNodes(document)) {
+                assertEquals(matches(selectorPath, node), selectorPath.getCompiledPattern().matches(node, selectorPath.getNamespaces()), selector + " matching " + node.getNodeName());
+            }
+        }
+    }
+
+    @Test
+    public void testCompileGivenFilterPredicate() {
+        assertNull(((JaxenPatternSelectorPath) SelectorPathFactory.newSelectorPath("b[@id = '1']")).getCompiledPattern());
+        assertNull(((JaxenPatternSelectorPath) SelectorPathFactory.newSelectorPath("b/text()")).getCompiledPattern());
+    }
+
+    private boolean matches(SelectorPath selectorPath, Node node) throws JaxenException {
+        SimpleNamespaceContext simpleNamespaceContext = new SimpleNamespaceContext();
+        for (String namespacePrefix : selectorPath.getNamespaces().stringPropertyNames()) {
+            simpleNamespaceContext.addNamespace(namespacePrefix, selectorPath.getNamespaces().getProperty(namespacePrefix));
+        }
+        Context context = new Context(new ContextSupport(simpleNamespaceContext, XPathFunctionContext.getInstance(), new SimpleVariableContext(), DocumentNavigator.getInstance()));
+
+        return ((JaxenPatternSelectorPath) selectorPath).getPattern().matches(node, context);
+    }
+
+    private Document parse() throws Exception {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+
+        return documentBuilderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(XML)));
+    }
+
+    private List<Node> getNodes(Node node) {
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(node);
+        if (node.getAttributes() != null) {
+            for (int i = 0; i < node.getAttributes().getLength(); i++) {
+                nodes.add(node.getAttributes().item(i));
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            nodes.addAll(getNodes(child));
+        }
+        return nodes;
+    }
+}
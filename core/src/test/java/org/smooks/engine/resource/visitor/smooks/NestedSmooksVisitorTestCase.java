@@ -52,6 +52,7 @@ import org.smooks.api.ApplicationContext;
 import org.smooks.api.ExecutionContext;
 import org.smooks.api.NotAppContextScoped;
 import org.smooks.api.SmooksException;
+import org.smooks.api.TypedKey;
 import org.smooks.api.delivery.fragment.Fragment;
 import org.smooks.api.io.Sink;
 import org.smooks.api.io.Source;
@@ -62,6 +63,7 @@ import org.smooks.api.resource.visitor.sax.ng.BeforeVisitor;
 import org.smooks.api.resource.visitor.sax.ng.ElementVisitor;
 import org.smooks.engine.DefaultApplicationContextBuilder;
 import org.smooks.engine.DefaultFilterSettings;
+import org.smooks.engine.delivery.DOMReader;
 import org.smooks.engine.delivery.event.VisitSequence;
 import org.smooks.engine.delivery.fragment.NodeFragment;
 import org.smooks.engine.delivery.interceptor.ExceptionInterceptor;
@@ -69,19 +71,23 @@ import org.smooks.engine.delivery.interceptor.InterceptorVisitorChainFactory;
 import org.smooks.engine.delivery.interceptor.InterceptorVisitorDefinition;
 import org.smooks.engine.resource.visitor.SimpleSerializerVisitor;
 import org.smooks.engine.delivery.interceptor.EventPointerStaticProxyInterceptor;
+import org.smooks.engine.delivery.sax.ng.pointer.EventPointer;
 import org.smooks.engine.lookup.InstanceLookup;
 import org.smooks.engine.lookup.InterceptorVisitorChainFactoryLookup;
 import org.smooks.engine.memento.SimpleVisitorMemento;
 import org.smooks.engine.memento.VisitorMemento;
 import org.smooks.engine.resource.config.DefaultResourceConfig;
+import org.smooks.engine.resource.config.GenericReaderConfigurator;
 import org.smooks.engine.resource.visitor.dom.DOMModel;
 import org.smooks.io.AbstractOutputStreamResource;
 import org.smooks.io.FragmentWriter;
 import org.smooks.io.Stream;
 import org.smooks.io.sink.StringSink;
 import org.smooks.io.source.DOMSource;
+import org.smooks.io.source.StringSource;
 import org.smooks.testkit.MockExecutionContext;
 import org.w3c.dom.CharacterData;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
@@ -92,16 +98,24 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NestedSmooksVisitorTestCase {
@@ -191,6 +205,155 @@ public class NestedSmooksVisitorTestCase {
         nestedSmooksVisitor.filterSource(new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()), new NodeFragment(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()), null, executionContext, VisitSequence.values()[new Random().nextInt(VisitSequence.values().length)]);
     }
 
+    @Test
+    public void testFilterSourceReusesEventPointerDocument() throws ParserConfigurationException {
+        List<Node> eventPointerDocuments = new ArrayList<>();
+        List<Node> dereferencedNodes = new ArrayList<>();
+        NestedSmooksVisitor nestedSmooksVisitor = new NestedSmooksVisitor();
+        nestedSmooksVisitor.setPipeline(new Smooks() {
+            @Override
+            public void filterSource(ExecutionContext executionContext, Source source, Sink... sinks) throws SmooksException {
+                Node eventPointerDocument = ((DOMSource) source).getNode();
+                eventPointerDocuments.add(eventPointerDocument);
+                dereferencedNodes.add(new EventPointer(eventPointerDocument.getFirstChild()).dereference(executionContext));
+            }
+        });
+
+        ExecutionContext executionContext = new MockExecutionContext();
+        nestedSmooksVisitor.onPreExecution(executionContext);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        NodeFragment visitedNodeFragment = new NodeFragment(document.createElement("a"));
+        Node foo = document.createElement("foo");
+        Node bar = document.createElement("bar");
+        nestedSmooksVisitor.filterSource(visitedNodeFragment, new NodeFragment(foo), null, executionContext, VisitSequence.BEFORE);
+        nestedSmooksVisitor.filterSource(visitedNodeFragment, new NodeFragment(bar), null, executionContext, VisitSequence.BEFORE);
+        nestedSmooksVisitor.filterSource(visitedNodeFragment, new NodeFragment(bar), null, executionContext, VisitSequence.AFTER);
+
+        assertSame(eventPointerDocuments.get(0), eventPointerDocuments.get(1));
+        assertNotSame(eventPointerDocuments.get(1), eventPointerDocuments.get(2));
+        assertEquals(VisitSequence.AFTER, new EventPointer(eventPointerDocuments.get(2).getFirstChild()).getVisit());
+        assertSame(foo, dereferencedNodes.get(0));
+        assertSame(bar, dereferencedNodes.get(1));
+        assertSame(bar, dereferencedNodes.get(2));
+    }
+
+    @Test
+    public void testPipelineExecutionContextIsReusedAcrossVisitedFragments() throws DocumentException {
+        Smooks smooks = new Smooks();
+
+        Set<ExecutionContext> pipelineExecutionContexts = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<String> visitedElements = new ArrayList<>();
+        NestedSmooksVisitor nestedSmooksVisitor = new NestedSmooksVisitor();
+        Smooks pipeline = new Smooks(nestedSmooksVisitor.newPipelineApplicationContext(smooks.getApplicationContext()));
+        pipeline.addVisitor((BeforeVisitor) (element, executionContext) -> {
+            assertNull(executionContext.get(TypedKey.of("record")));
+            executionContext.put(TypedKey.of("record"), element.getAttribute("id"));
+            pipelineExecutionContexts.add(executionContext);
+            visitedElements.add(element.getAttribute("id"));
+        }, "b");
+
+        nestedSmooksVisitor.setAction(Optional.of(NestedSmooksVisitor.Action.BIND_TO));
+        nestedSmooksVisitor.setBindIdOptional(Optional.of("foo"));
+        nestedSmooksVisitor.setPipeline(pipeline);
+
+        smooks.addVisitor(nestedSmooksVisitor, "b");
+
+        smooks.filterSource(new StringSource("<a><b id=\"1\"/><b id=\"2\"/><b id=\"3\"/></a>"));
+
+        assertEquals(Arrays.asList("1", "2", "3"), visitedElements);
+        assertEquals(1, pipelineExecutionContexts.size());
+    }
+
+    @Test
+    public void testVisitedFragmentIsReplayedIntoPipeline() {
+        Smooks smooks = new Smooks();
+
+        List<Node> deAttachedNodes = new ArrayList<>();
+        NestedSmooksVisitor nestedSmooksVisitor = new NestedSmooksVisitor() {
+            @Override
+            protected Node deAttach(Node node, ExecutionContext executionContext) {
+                deAttachedNodes.add(node);
+                return super.deAttach(node, executionContext);
+            }
+        };
+        List<Source> pipelineSources = new ArrayList<>();
+        Smooks pipeline = new Smooks(nestedSmooksVisitor.newPipelineApplicationContext(smooks.getApplicationContext())) {
+            @Override
+            public void filterSource(ExecutionContext executionContext, Source source, Sink... sinks) throws SmooksException {
+                pipelineSources.add(source);
+                super.filterSource(executionContext, source, sinks);
+            }
+        };
+        List<String> pipelineEvents = new ArrayList<>();
+        pipeline.addVisitor(newEventRecordingVisitor(pipelineEvents), "c");
+
+        nestedSmooksVisitor.setAction(Optional.of(NestedSmooksVisitor.Action.BIND_TO));
+        nestedSmooksVisitor.setBindIdOptional(Optional.of("foo"));
+        nestedSmooksVisitor.setPipeline(pipeline);
+
+        smooks.addVisitor(nestedSmooksVisitor, "b");
+
+        smooks.filterSource(new StringSource("<a><b><c>x</c></b><b><c>y</c></b></a>"));
+
+        assertEquals(Arrays.asList("visitBefore c", "visitChildText x", "visitAfter c", "visitBefore c", "visitChildText y", "visitAfter c"), pipelineEvents);
+        assertTrue(deAttachedNodes.isEmpty());
+        assertTrue(pipelineSources.isEmpty());
+    }
+
+    @Test
+    public void testVisitedFragmentIsFilteredGivenPipelineReader() {
+        Smooks smooks = new Smooks();
+
+        List<Node> deAttachedNodes = new ArrayList<>();
+        NestedSmooksVisitor nestedSmooksVisitor = new NestedSmooksVisitor() {
+            @Override
+            protected Node deAttach(Node node, ExecutionContext executionContext) {
+                deAttachedNodes.add(node);
+                return super.deAttach(node, executionContext);
+            }
+        };
+        Smooks pipeline = new Smooks(nestedSmooksVisitor.newPipelineApplicationContext(smooks.getApplicationContext()));
+        pipeline.setReaderConfig(new GenericReaderConfigurator(DOMReader.class));
+        List<String> pipelineEvents = new ArrayList<>();
+        pipeline.addVisitor(newEventRecordingVisitor(pipelineEvents), "c");
+
+        nestedSmooksVisitor.setAction(Optional.of(NestedSmooksVisitor.Action.BIND_TO));
+        nestedSmooksVisitor.setBindIdOptional(Optional.of("foo"));
+        nestedSmooksVisitor.setPipeline(pipeline);
+
+        smooks.addVisitor(nestedSmooksVisitor, "b");
+
+        smooks.filterSource(new StringSource("<a><b><c>x</c></b><b><c>y</c></b></a>"));
+
+        assertEquals(Arrays.asList("visitBefore c", "visitChildText x", "visitAfter c", "visitBefore c", "visitChildText y", "visitAfter c"), pipelineEvents);
+        assertEquals(2, deAttachedNodes.size());
+    }
+
+    private ElementVisitor newEventRecordingVisitor(List<String> events) {
+        return new ElementVisitor() {
+            @Override
+            public void visitBefore(Element element, ExecutionContext executionContext) {
+                events.add("visitBefore " + element.getNodeName());
+            }
+
+            @Override
+            public void visitAfter(Element element, ExecutionContext executionContext) {
+                events.add("visitAfter " + element.getNodeName());
+            }
+
+            @Override
+            public void visitChildText(CharacterData characterData, ExecutionContext executionContext) {
+                events.add("visitChildText " + characterData.getData());
+            }
+
+            @Override
+            public void visitChildElement(Element childElement, ExecutionContext executionContext) {
+                events.add("visitChildElement " + childElement.getNodeName());
+            }
+        };
+    }
+
     @Test
     public void testPipelineVisitorGivenMemento() throws DocumentException {
         Smooks smooks = new Smooks();
@@ -519,6 +682,45 @@ public class NestedSmooksVisitorTestCase {
         assertEquals("<a>foobar</a>", strinkSink.toString());
     }
     
+    @Test
+    public void testFilterSourceGivenNestedReplace() {
+        Smooks smooks = new Smooks();
+
+        NestedSmooksVisitor rootNestedSmooksVisitor = new NestedSmooksVisitor();
+        Smooks rootPipeline = new Smooks(rootNestedSmooksVisitor.newPipelineApplicationContext(smooks.getApplicationContext()));
+        rootPipeline.addVisitor((BeforeVisitor) (element, executionContext) -> {
+            try {
+                Stream.out(executionContext).write("X");
+            } catch (IOException e) {
+                throw new SmooksException(e);
+            }
+        }, "root");
+        rootNestedSmooksVisitor.setAction(Optional.of(NestedSmooksVisitor.Action.REPLACE));
+        rootNestedSmooksVisitor.setPipeline(rootPipeline);
+
+        NestedSmooksVisitor aNestedSmooksVisitor = new NestedSmooksVisitor();
+        Smooks aPipeline = new Smooks(aNestedSmooksVisitor.newPipelineApplicationContext(smooks.getApplicationContext()));
+        aPipeline.addVisitor((BeforeVisitor) (element, executionContext) -> {
+            try {
+                Stream.out(executionContext).write("Y");
+            } catch (IOException e) {
+                throw new SmooksException(e);
+            }
+        }, "a");
+        aNestedSmooksVisitor.setAction(Optional.of(NestedSmooksVisitor.Action.REPLACE));
+        aNestedSmooksVisitor.setPipeline(aPipeline);
+
+        smooks.addVisitor(rootNestedSmooksVisitor, "root");
+        smooks.addVisitor(aNestedSmooksVisitor, "a");
+
+        SmooksException smooksException = assertThrows(SmooksException.class, () -> smooks.filterSource(new StringSource("<doc><root><a>t</a><c/></root></doc>"), new StringSink()));
+        Throwable cause = smooksException;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().contains("fragment is exclusively acquired by another writer"));
+    }
+
     @Test
     public void testVisitBeforeGivenPrependBefore() throws DocumentException {
         Smooks smooks = new Smooks();
@@ -0,0 +1,173 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io;
+
+import org.junit.jupiter.api.Test;
+import org.smooks.Smooks;
+import org.smooks.io.sink.StreamSink;
+import org.smooks.io.source.StringSource;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferedSinkWriterTestCase {
+
+    private static final String XML = "<a><b>1</b><b>2</b><b>3</b></a>";
+
+    @Test
+    public void testFlushOnFragmentEndGivenFragmentFlushPolicy() throws IOException {
+        FlushCountingWriter flushCountingWriter = new FlushCountingWriter();
+        BufferedSinkWriter bufferedSinkWriter = new BufferedSinkWriter(flushCountingWriter, BufferedSinkWriter.FlushPolicy.FRAGMENT, 0, 0);
+
+        bufferedSinkWriter.write("foo");
+        assertEquals("", flushCountingWriter.toString());
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals("foo", flushCountingWriter.toString());
+        assertEquals(1, flushCountingWriter.flushCount);
+    }
+
+    @Test
+    public void testFlushOnFragmentEndGivenDocumentFlushPolicy() throws IOException {
+        FlushCountingWriter flushCountingWriter = new FlushCountingWriter();
+        BufferedSinkWriter bufferedSinkWriter = new BufferedSinkWriter(flushCountingWriter, BufferedSinkWriter.FlushPolicy.DOCUMENT, 0, 0);
+
+        bufferedSinkWriter.write("foo");
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals("", flushCountingWriter.toString());
+        assertEquals(0, flushCountingWriter.flushCount);
+
+        bufferedSinkWriter.flush();
+        assertEquals("foo", flushCountingWriter.toString());
+        assertEquals(1, flushCountingWriter.flushCount);
+    }
+
+    @Test
+    public void testFlushOnFragmentEndGivenThresholdFlushPolicy() throws IOException {
+        FlushCountingWriter flushCountingWriter = new FlushCountingWriter();
+        BufferedSinkWriter bufferedSinkWriter = new BufferedSinkWriter(flushCountingWriter, BufferedSinkWriter.FlushPolicy.THRESHOLD, 5, 0);
+
+        bufferedSinkWriter.write("foo");
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals(0, flushCountingWriter.flushCount);
+
+        bufferedSinkWriter.write("bar");
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals("foobar", flushCountingWriter.toString());
+        assertEquals(1, flushCountingWriter.flushCount);
+
+        bufferedSinkWriter.write('b');
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals(1, flushCountingWriter.flushCount);
+    }
+
+    @Test
+    public void testFlushOnFragmentEndGivenIntervalFlushPolicy() throws IOException, InterruptedException {
+        FlushCountingWriter flushCountingWriter = new FlushCountingWriter();
+        BufferedSinkWriter bufferedSinkWriter = new BufferedSinkWriter(flushCountingWriter, BufferedSinkWriter.FlushPolicy.INTERVAL, 0, 10);
+
+        Thread.sleep(20);
+        bufferedSinkWriter.write("foo");
+        bufferedSinkWriter.flushOnFragmentEnd();
+        assertEquals("foo", flushCountingWriter.toString());
+        assertEquals(1, flushCountingWriter.flushCount);
+    }
+
+    @Test
+    public void testWriteGivenContentLargerThanBuffer() throws IOException {
+        FlushCountingWriter flushCountingWriter = new FlushCountingWriter();
+        BufferedSinkWriter bufferedSinkWriter = new BufferedSinkWriter(flushCountingWriter, BufferedSinkWriter.FlushPolicy.DOCUMENT, 0, 0);
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < BufferedSinkWriter.DEFAULT_BUFFER_SIZE * 3; i++) {
+            content.append((char) ('a' + i % 26));
+        }
+        bufferedSinkWriter.write("<");
+        bufferedSinkWriter.write(content.toString());
+        bufferedSinkWriter.write(content.toString().toCharArray(), 1, BufferedSinkWriter.DEFAULT_BUFFER_SIZE - 1);
+        bufferedSinkWriter.write(">");
+        bufferedSinkWriter.flush();
+
+        assertEquals("<" + content + content.substring(1, BufferedSinkWriter.DEFAULT_BUFFER_SIZE) + ">", flushCountingWriter.toString());
+    }
+
+    @Test
+    public void testFilterSourceGivenStreamSink() throws IOException, SAXException {
+        FlushCountingOutputStream defaultPolicyOutputStream = new FlushCountingOutputStream();
+        new Smooks().filterSource(new StringSource(XML), new StreamSink<>(defaultPolicyOutputStream));
+        assertEquals(XML, defaultPolicyOutputStream.toString(StandardCharsets.UTF_8.name()));
+
+        FlushCountingOutputStream fragmentPolicyOutputStream = new FlushCountingOutputStream();
+        Smooks smooks = new Smooks(new ByteArrayInputStream(("<smooks-resource-list xmlns=\"https://www.smooks.org/xsd/smooks-2.0.xsd\">" +
+                "<params><param name=\"sink.flush.policy\">FRAGMENT</param></params>" +
+                "</smooks-resource-list>").getBytes(StandardCharsets.UTF_8)));
+        smooks.filterSource(new StringSource(XML), new StreamSink<>(fragmentPolicyOutputStream));
+        assertEquals(XML, fragmentPolicyOutputStream.toString(StandardCharsets.UTF_8.name()));
+
+        assertTrue(defaultPolicyOutputStream.flushCount < fragmentPolicyOutputStream.flushCount);
+    }
+
+    private static class FlushCountingWriter extends StringWriter {
+        private int flushCount;
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+    }
+
+    private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+        private int flushCount;
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedFileInputStreamTestCase {
+
+    @TempDir
+    public Path tempDir;
+
+    @Test
+    public void testReadAcrossWindows() throws IOException {
+        byte[] content = newContent(100);
+        Path path = Files.write(tempDir.resolve("content.bin"), content);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(path, 7)) {
+            byte[] buffer = new byte[16];
+            int count;
+            while ((count = mappedFileInputStream.read(buffer, 0, buffer.length)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, count);
+            }
+            assertEquals(-1, mappedFileInputStream.read());
+        }
+
+        assertArrayEquals(content, byteArrayOutputStream.toByteArray());
+    }
+
+    @Test
+    public void testSkipAndReset() throws IOException {
+        byte[] content = newContent(100);
+        Path path = Files.write(tempDir.resolve("content.bin"), content);
+
+        try (MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(path, 7)) {
+            assertEquals(20, mappedFileInputStream.skip(20));
+            assertEquals(content[20], (byte) mappedFileInputStream.read());
+            mappedFileInputStream.mark(0);
+            assertEquals(50, mappedFileInputStream.skip(50));
+            assertEquals(content[71], (byte) mappedFileInputStream.read());
+            assertEquals(28, mappedFileInputStream.available());
+            mappedFileInputStream.reset();
+            assertEquals(content[21], (byte) mappedFileInputStream.read());
+            assertEquals(78, mappedFileInputStream.skip(1000));
+            assertEquals(-1, mappedFileInputStream.read());
+        }
+    }
+
+    @Test
+    public void testReadAfterClose() throws IOException {
+        byte[] content = newContent(100);
+        Path path = Files.write(tempDir.resolve("content.bin"), content);
+
+        MappedFileInputStream mappedFileInputStream = new MappedFileInputStream(path, 7);
+        assertEquals(content[0], (byte) mappedFileInputStream.read());
+        mappedFileInputStream.close();
+        mappedFileInputStream.close();
+
+        assertThrows(IOException.class, mappedFileInputStream::read);
+        Files.delete(path);
+    }
+
+    private static byte[] newContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
@@ -43,6 +43,7 @@
 package org.smooks.io;
 
 import org.junit.jupiter.api.Test;
+import org.smooks.api.SmooksException;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Locator;
@@ -53,6 +54,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SAXWriterTestCase {
 
@@ -118,6 +121,34 @@ public class SAXWriterTestCase {
         assertEquals(1, countDownLatch.getCount());
     }
 
+    @Test
+    public void testWriteGivenSurrogatePairSplitAcrossWrites() throws IOException {
+        StringBuilder text = new StringBuilder();
+        SAXWriter saxWriter = new SAXWriter(new MockContentHandler() {
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                text.append(ch, start, length);
+            }
+        }, StandardCharsets.UTF_8);
+
+        String grinningFace = new String(Character.toChars(0x1F600));
+        saxWriter.write("<a>");
+        saxWriter.write(grinningFace.charAt(0));
+        saxWriter.write(grinningFace.charAt(1));
+        saxWriter.write("</a>");
+        saxWriter.endOfInput();
+
+        assertEquals(grinningFace, text.toString());
+    }
+
+    @Test
+    public void testWriteGivenDocTypeAndDOMBuilder() {
+        SAXWriter saxWriter = new SAXWriter(new DOMBuilder(), StandardCharsets.UTF_8);
+
+        SmooksException smooksException = assertThrows(SmooksException.class, () -> saxWriter.write("<!DOCTYPE a SYSTEM 'a.dtd'><a/>"));
+        assertTrue(smooksException.getMessage().contains("DOCTYPE 'a'"));
+    }
+
     private static class MockContentHandler implements ContentHandler {
 
         @Override
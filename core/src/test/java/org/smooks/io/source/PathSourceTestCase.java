@@ -0,0 +1,85 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Core
+ * %%
+ * Copyright (C) 2020 Smooks
+ * %%
+ * Licensed under the terms of the Apache License Version 2.0, or
+ * the GNU Lesser General Public License version 3.0 or later.
+ *
+ * SPDX-License-Identifier: Apache-2.0 OR LGPL-3.0-or-later
+ *
+ * ======================================================================
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ======================================================================
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ * =========================LICENSE_END==================================
+ */
+package org.smooks.io.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.smooks.Smooks;
+import org.smooks.engine.DefaultApplicationContextBuilder;
+import org.smooks.engine.DefaultFilterSettings;
+import org.smooks.engine.delivery.dom.DOMFilterType;
+import org.smooks.io.sink.StringSink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PathSourceTestCase {
+
+    @TempDir
+    public Path tempDir;
+
+    @Test
+    public void testFilterSourceGivenDeclaredEncoding() throws IOException {
+        Path path = Files.write(tempDir.resolve("input.xml"), "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>café</a>".getBytes(StandardCharsets.ISO_8859_1));
+
+        StringSink stringSink = new StringSink();
+        new Smooks().filterSource(new PathSource(path), stringSink);
+
+        assertEquals("<a>café</a>", stringSink.getResult());
+    }
+
+    @Test
+    public void testFilterSourceGivenDOMFilter() throws IOException {
+        Path path = Files.write(tempDir.resolve("input.xml"), "<a><b>café</b></a>".getBytes(StandardCharsets.UTF_8));
+
+        Smooks smooks = new Smooks(new DefaultApplicationContextBuilder().withFilterSettings(new DefaultFilterSettings().setFilterType(new DOMFilterType())).build());
+        StringSink stringSink = new StringSink();
+        smooks.filterSource(new PathSource(path), stringSink);
+
+        assertEquals("<a><b>café</b></a>", stringSink.getResult());
+    }
+}